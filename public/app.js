@@ -42,6 +42,8 @@
     latestScore: { totalPoints: 0, currentStreak: 0, bestStreak: 0 }
   };
   let leaderboardRefreshInFlight = false;
+  let leaderboardStream = null;
+  const leaderboardEntries = new Map();
 
   function init() {
     elements.joinRoomForm.addEventListener('submit', handleJoinRoom);
@@ -51,7 +53,7 @@
     disableGameUI();
 
     setInterval(() => {
-      if (state.roomId) {
+      if (state.roomId && !isLeaderboardStreamLive()) {
         refreshLeaderboard();
       }
     }, 15000);
@@ -87,17 +89,15 @@
 
     const roomName = sanitizeRoomName(elements.createRoomName.value);
     try {
-      const base64 = await readFileAsBase64(file);
-      const params = new URLSearchParams();
+      const query = new URLSearchParams();
       if (roomName) {
-        params.set('roomName', roomName);
+        query.set('roomName', roomName);
       }
-      params.set('dbBase64', base64);
 
-      const response = await fetch('/api/rooms', {
+      const response = await fetch(`/api/rooms?${query.toString()}`, {
         method: 'POST',
-        headers: { 'Content-Type': 'application/x-www-form-urlencoded' },
-        body: params.toString()
+        headers: { 'Content-Type': 'application/octet-stream' },
+        body: file
       });
 
       if (!response.ok) {
@@ -128,6 +128,7 @@
     resetResult();
     updateScoreboardDisplay();
     refreshLeaderboard();
+    connectLeaderboardStream();
     enableGameUI();
   }
 
@@ -240,8 +241,69 @@
     }
   }
 
+  function connectLeaderboardStream() {
+    if (leaderboardStream) {
+      leaderboardStream.source.close();
+      leaderboardStream = null;
+    }
+    if (!state.roomId || typeof window.EventSource !== 'function') {
+      return;
+    }
+    const source = new EventSource(`/api/room-events?roomId=${encodeURIComponent(state.roomId)}`);
+    const stream = { source, live: false };
+    leaderboardStream = stream;
+
+    source.addEventListener('snapshot', (event) => {
+      const data = parseEventData(event);
+      if (!data) {
+        return;
+      }
+      stream.live = true;
+      if (data.displayName) {
+        state.roomName = data.displayName;
+        elements.roomNameLabel.textContent = state.roomName;
+      }
+      leaderboardEntries.clear();
+      (data.leaderboard || []).forEach((entry) => leaderboardEntries.set(entry.username, entry));
+      renderLeaderboard(sortedLeaderboardEntries());
+    });
+
+    source.addEventListener('leaderboard', (event) => {
+      const data = parseEventData(event);
+      if (!data) {
+        return;
+      }
+      (data.changes || []).forEach((entry) => leaderboardEntries.set(entry.username, entry));
+      renderLeaderboard(sortedLeaderboardEntries());
+    });
+
+    source.onerror = () => {
+      stream.live = false;
+      if (source.readyState === EventSource.CLOSED && leaderboardStream === stream) {
+        leaderboardStream = null;
+      }
+    };
+  }
+
+  function isLeaderboardStreamLive() {
+    return Boolean(leaderboardStream && leaderboardStream.live);
+  }
+
+  function parseEventData(event) {
+    try {
+      return JSON.parse(event.data);
+    } catch (error) {
+      console.error('Malformed leaderboard event:', error);
+      return null;
+    }
+  }
+
+  function sortedLeaderboardEntries() {
+    return Array.from(leaderboardEntries.values()).sort((a, b) => a.rank - b.rank);
+  }
+
   async function refreshLeaderboard() {
-    if (!state.roomId || leaderboardRefreshInFlight) {
+    if (!state.roomId || leaderboardRefreshInFlight || isLeaderboardStreamLive()) {
       return;
     }
     leaderboardRefreshInFlight = true;
@@ -501,8 +563,32 @@
       return;
     }
     elements.contextContainer.classList.remove('hidden');
-    renderContextEntry(elements.contextBefore, context?.before, 'No earlier message available.');
-    renderContextEntry(elements.contextAfter, context?.after, 'No later message available.');
+    renderContextEntries(elements.contextBefore, contextList(context?.beforeMessages, context?.before), 'No earlier message available.');
+    renderContextEntries(elements.contextAfter, contextList(context?.afterMessages, context?.after), 'No later message available.');
+  }
+
+  function contextList(messages, single) {
+    if (Array.isArray(messages) && messages.length > 0) {
+      return messages;
+    }
+    return single ? [single] : [];
+  }
+
+  function renderContextEntries(target, snippets, fallback) {
+    if (!target) {
+      return;
+    }
+    if (snippets.length <= 1) {
+      renderContextEntry(target, snippets[0], fallback);
+      return;
+    }
+    target.innerHTML = '';
+    snippets.forEach((snippet) => {
+      const entry = document.createElement('div');
+      entry.className = 'context-entry';
+      renderContextEntry(entry, snippet, fallback);
+      target.appendChild(entry);
+    });
   }
 
   function renderContextEntry(target, snippet, fallback) {
@@ -750,22 +836,6 @@
     }
   }
 
-  function readFileAsBase64(file) {
-    return new Promise((resolve, reject) => {
-      const reader = new FileReader();
-      reader.onerror = () => reject(new Error('Failed to read file.'));
-      reader.onload = () => {
-        const buffer = new Uint8Array(reader.result);
-        let binary = '';
-        buffer.forEach((byte) => {
-          binary += String.fromCharCode(byte);
-        });
-        resolve(btoa(binary));
-      };
-      reader.readAsArrayBuffer(file);
-    });
-  }
-
   init();
 
   function sanitizeUsername(value) {
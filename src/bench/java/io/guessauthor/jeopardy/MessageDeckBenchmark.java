@@ -0,0 +1,57 @@
+package io.guessauthor.jeopardy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing ids from one shared deck. A player's deck is normally touched by one request at a time,
+ * so the four-thread case is the worst case of a player double-clicking through a prefetch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageDeckBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private MessageDeck deck;
+
+    @Setup
+    public void setUp() {
+        List<String> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(Long.toString(900_000_000_000_000_000L + i * 1_000L));
+        }
+        deck = new MessageDeck(List.copyOf(ids));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String nextIdUncontended() {
+        return deck.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextIdContended() {
+        return deck.nextId();
+    }
+}
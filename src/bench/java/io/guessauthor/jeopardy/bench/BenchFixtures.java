@@ -0,0 +1,134 @@
+package io.guessauthor.jeopardy.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Random;
+
+/**
+ * Generates Discord-export-shaped SQLite databases so benchmarks run offline and on identical data.
+ * Authors follow a Pareto-like distribution, as in real servers where a few members write most of
+ * the messages; some messages are empty, and some carry attachments or embeds.
+ */
+public final class BenchFixtures {
+
+    public static final int DEFAULT_MESSAGES = 20_000;
+    public static final int DEFAULT_PARTICIPANTS = 60;
+
+    private static final long FIRST_MESSAGE_ID = 900_000_000_000_000_000L;
+    private static final Instant FIRST_TIMESTAMP = Instant.parse("2023-01-01T00:00:00Z");
+    private static final String[] WORDS = {
+        "hello", "world", "anyone", "up", "for", "a", "game", "tonight", "lol", "that", "was", "wild",
+        "did", "you", "see", "the", "match", "brb", "ok", "sure", "maybe", "later", "nice", "gg"
+    };
+
+    private BenchFixtures() {
+    }
+
+    /**
+     * Creates a fixture in a fresh temporary directory that is removed when the JVM exits.
+     */
+    public static Path temporaryDatabase(int messages, int participants) throws IOException, SQLException {
+        Path dir = Files.createTempDirectory("jeopardy-bench-");
+        Path database = dir.resolve("fixture.db");
+        createDatabase(database, messages, participants, 42L);
+        database.toFile().deleteOnExit();
+        dir.toFile().deleteOnExit();
+        return database;
+    }
+
+    public static void createDatabase(Path database, int messages, int participants, long seed) throws SQLException {
+        Random random = new Random(seed);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.toAbsolutePath())) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("""
+                    CREATE TABLE participants (id TEXT PRIMARY KEY, name TEXT, discriminator TEXT, nickname TEXT,
+                        color TEXT, is_bot INTEGER, avatar_url TEXT)""");
+                statement.executeUpdate("""
+                    CREATE TABLE messages (id TEXT PRIMARY KEY, type TEXT, timestamp TEXT, timestamp_edited TEXT,
+                        call_ended_timestamp TEXT, is_pinned INTEGER, content TEXT, author_id TEXT)""");
+                statement.executeUpdate("""
+                    CREATE TABLE attachments (id TEXT PRIMARY KEY, message_id TEXT, url TEXT, file_name TEXT,
+                        file_size_bytes INTEGER)""");
+                statement.executeUpdate("""
+                    CREATE TABLE embeds (id INTEGER PRIMARY KEY AUTOINCREMENT, message_id TEXT, raw_json TEXT)""");
+            }
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO participants (id, name, discriminator, nickname, is_bot) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < participants; i++) {
+                    insert.setString(1, participantId(i));
+                    insert.setString(2, "user" + i);
+                    insert.setString(3, "0001");
+                    insert.setString(4, i % 2 == 1 ? "nick" + i : null);
+                    insert.setInt(5, i == participants - 1 ? 1 : 0);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+
+            try (PreparedStatement message = connection.prepareStatement(
+                     "INSERT INTO messages (id, type, timestamp, content, author_id) VALUES (?, 'Default', ?, ?, ?)");
+                 PreparedStatement attachment = connection.prepareStatement(
+                     "INSERT INTO attachments (id, message_id, url, file_name, file_size_bytes) VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement embed = connection.prepareStatement(
+                     "INSERT INTO embeds (message_id, raw_json) VALUES (?, ?)")) {
+                for (int i = 0; i < messages; i++) {
+                    String id = Long.toString(FIRST_MESSAGE_ID + i * 1_000L);
+                    message.setString(1, id);
+                    message.setString(2, FIRST_TIMESTAMP.plusSeconds(i * 37L).toString());
+                    message.setString(3, i % 50 == 0 ? null : content(random, i));
+                    message.setString(4, participantId(author(random, participants)));
+                    message.addBatch();
+                    if (i % 17 == 0) {
+                        attachment.setString(1, id + "a");
+                        attachment.setString(2, id);
+                        attachment.setString(3, "https://cdn.example.com/attachments/" + id + "/image.png");
+                        attachment.setString(4, "image.png");
+                        attachment.setInt(5, 1024 + random.nextInt(1 << 20));
+                        attachment.addBatch();
+                    }
+                    if (i % 23 == 0) {
+                        embed.setString(1, id);
+                        embed.setString(2, "{\"type\":\"link\",\"title\":\"Link " + i
+                            + "\",\"url\":\"https://example.com/" + i + "\",\"description\":\""
+                            + "preview text ".repeat(1 + random.nextInt(40)) + "\"}");
+                        embed.addBatch();
+                    }
+                }
+                message.executeBatch();
+                attachment.executeBatch();
+                embed.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private static String participantId(int index) {
+        return Integer.toString(1_000 + index);
+    }
+
+    private static int author(Random random, int participants) {
+        double pareto = 1.0 / Math.pow(1.0 - random.nextDouble(), 1.0 / 1.2);
+        return Math.min(participants - 2, (int) pareto - 1);
+    }
+
+    private static String content(Random random, int index) {
+        StringBuilder builder = new StringBuilder("message ").append(index);
+        int words = 3 + random.nextInt(30);
+        for (int i = 0; i < words; i++) {
+            builder.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (index % 7 == 0) {
+            builder.append("\n\"quoted\" line with a tab\tand an émoji 🎉");
+        }
+        return builder.toString();
+    }
+}
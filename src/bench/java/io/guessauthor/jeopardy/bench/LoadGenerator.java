@@ -0,0 +1,527 @@
+package io.guessauthor.jeopardy.bench;
+
+import com.sun.net.httpserver.HttpServer;
+import io.guessauthor.jeopardy.ServerLauncher;
+import io.guessauthor.jeopardy.util.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * End-to-end load test. Starts the server in-process (or targets {@code --url}), uploads one
+ * generated database per room, and runs simulated players through the question, context and guess
+ * loop on virtual threads. Each player keeps its own samples, so recording never contends; they are
+ * merged once the run ends. The summary is a single JSON document, written last on stdout and to
+ * {@code --output} if given. Arguments after {@code --} are passed to {@link ServerLauncher}.
+ */
+public final class LoadGenerator {
+
+    private static final Pattern QUESTION_ID = Pattern.compile("\"questionId\":\"([^\"]+)\"");
+    private static final Pattern PARTICIPANT_ID = Pattern.compile("\"participantId\":\"([^\"]+)\"");
+    private static final Pattern TOTAL_POINTS = Pattern.compile("\"totalPoints\":(-?\\d+)");
+    private static final Pattern ROOM_ID = Pattern.compile("\"roomId\":\"([^\"]+)\"");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final long CONTEXT_MIN_POINTS = 200;
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config;
+        try {
+            config = Config.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+
+        HttpServer server = null;
+        URI base;
+        if (config.url != null) {
+            base = URI.create(config.url.endsWith("/") ? config.url : config.url + "/");
+        } else {
+            int port = freePort();
+            Path roomsDir = Files.createTempDirectory("jeopardy-load-rooms-");
+            List<String> serverArgs = new ArrayList<>(List.of("--port", Integer.toString(port), "--rooms-dir", roomsDir.toString()));
+            serverArgs.addAll(config.serverArgs);
+            server = ServerLauncher.start(serverArgs.toArray(String[]::new));
+            base = URI.create("http://127.0.0.1:" + port + "/");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        long setupStart = System.nanoTime();
+        List<String> roomIds = new ArrayList<>(config.rooms);
+        for (int i = 0; i < config.rooms; i++) {
+            roomIds.add(createRoom(client, base, config, i));
+        }
+        double setupSeconds = (System.nanoTime() - setupStart) / 1e9;
+        System.err.printf(Locale.US, "Created %d rooms in %.1f s; running %d players for %d s after %d s warm-up.%n",
+            roomIds.size(), setupSeconds, config.rooms * config.players, config.durationSeconds, config.warmupSeconds);
+
+        long now = System.nanoTime();
+        long recordFrom = now + Duration.ofSeconds(config.warmupSeconds).toNanos();
+        long deadline = recordFrom + Duration.ofSeconds(config.durationSeconds).toNanos();
+
+        List<Player> players = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < roomIds.size(); r++) {
+            for (int p = 0; p < config.players; p++) {
+                Player player = new Player(client, base, config, roomIds.get(r), "load-" + r + "-" + p, recordFrom, deadline);
+                players.add(player);
+                threads.add(Thread.ofVirtual().name(player.username).start(player));
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        byte[] summary = summarize(config, base, server != null, setupSeconds, players);
+        if (config.output != null) {
+            Files.write(config.output, summary);
+        }
+        System.out.println(new String(summary, StandardCharsets.UTF_8));
+
+        if (server != null) {
+            server.stop(0);
+        }
+        System.exit(0);
+    }
+
+    private static String createRoom(HttpClient client, URI base, Config config, int index) throws Exception {
+        // Rooms are content-addressed, so every room needs its own database to get its own room.
+        Path dir = Files.createTempDirectory("jeopardy-load-");
+        Path database = dir.resolve("room" + index + ".db");
+        BenchFixtures.createDatabase(database, config.messages, BenchFixtures.DEFAULT_PARTICIPANTS, 42L + index);
+        try {
+            HttpRequest request = HttpRequest.newBuilder(base.resolve("api/rooms?roomName=" + encode("Load " + index)))
+                .timeout(Duration.ofMinutes(2))
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofFile(database))
+                .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("Room creation failed with " + response.statusCode() + ": " + response.body());
+            }
+            Matcher matcher = ROOM_ID.matcher(response.body());
+            if (!matcher.find()) {
+                throw new IOException("Room creation returned no room id: " + response.body());
+            }
+            return matcher.group(1);
+        } finally {
+            Files.deleteIfExists(database);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static byte[] summarize(Config config, URI base, boolean inProcess, double setupSeconds, List<Player> players)
+        throws IOException {
+        Map<Endpoint, Samples> merged = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            merged.put(endpoint, new Samples());
+        }
+        for (Player player : players) {
+            for (Endpoint endpoint : Endpoint.values()) {
+                merged.get(endpoint).addAll(player.samples.get(endpoint));
+            }
+        }
+        double seconds = config.durationSeconds;
+        long requests = 0;
+        long errors = 0;
+        for (Samples samples : merged.values()) {
+            requests += samples.requests();
+            errors += samples.errors();
+        }
+        long totalRequests = requests;
+        long totalErrors = errors;
+
+        return JsonWriter.toByteArray(writer -> {
+            writer.beginObject()
+                .name("target").value(inProcess ? "in-process" : base.toString())
+                .name("rooms").value(config.rooms)
+                .name("playersPerRoom").value(config.players)
+                .name("thinkMillis").value(config.thinkMillis)
+                .name("contextRate").value(config.contextRate)
+                .name("messagesPerRoom").value(config.messages)
+                .name("warmupSeconds").value(config.warmupSeconds)
+                .name("durationSeconds").value(config.durationSeconds)
+                .name("setupSeconds").value(setupSeconds)
+                .name("requests").value(totalRequests)
+                .name("throughput").value(totalRequests / seconds)
+                .name("errors").value(totalErrors)
+                .name("errorRate").value(rate(totalErrors, totalRequests))
+                .name("endpoints").beginObject();
+            for (Endpoint endpoint : Endpoint.values()) {
+                Samples samples = merged.get(endpoint);
+                long[] sorted = samples.sortedLatencies();
+                writer.name(endpoint.label).beginObject()
+                    .name("requests").value(samples.requests())
+                    .name("throughput").value(samples.requests() / seconds)
+                    .name("errors").value(samples.errors())
+                    .name("errorRate").value(rate(samples.errors(), samples.requests()))
+                    .name("statuses").beginObject();
+                for (Map.Entry<String, Long> status : samples.statuses.entrySet()) {
+                    writer.name(status.getKey()).value(status.getValue());
+                }
+                writer.endObject()
+                    .name("latencyMillis").beginObject()
+                    .name("min").value(millis(sorted.length == 0 ? 0 : sorted[0]))
+                    .name("mean").value(millis(samples.meanNanos()))
+                    .name("p50").value(millis(percentile(sorted, 0.50)))
+                    .name("p95").value(millis(percentile(sorted, 0.95)))
+                    .name("p99").value(millis(percentile(sorted, 0.99)))
+                    .name("max").value(millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]))
+                    .endObject()
+                    .endObject();
+            }
+            writer.endObject().endObject();
+        });
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double rate(long part, long whole) {
+        return whole == 0 ? 0.0 : (double) part / whole;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java -cp target/jeopardy-server-1.0.0-benchmarks.jar io.guessauthor.jeopardy.bench.LoadGenerator [--rooms N] [--players N] [--duration-s N] [--warmup-s N] [--think-ms N] [--context-rate F] [--messages N] [--url URL] [--output PATH] [--no-gzip] [-- SERVER-ARGS...]");
+    }
+
+    private enum Endpoint {
+        RANDOM_MESSAGE("random-message"),
+        CONTEXT("context"),
+        GUESS("guess");
+
+        private final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * One simulated player: fetch a question, think, sometimes buy context and think again, then
+     * guess and think before the next round. Requests that start during warm-up are not recorded.
+     */
+    private static final class Player implements Runnable {
+
+        private final HttpClient client;
+        private final URI base;
+        private final Config config;
+        private final String roomId;
+        private final String username;
+        private final long recordFrom;
+        private final long deadline;
+        private final Map<Endpoint, Samples> samples = new EnumMap<>(Endpoint.class);
+        private long totalPoints;
+
+        private Player(HttpClient client, URI base, Config config, String roomId, String username, long recordFrom, long deadline) {
+            this.client = client;
+            this.base = base;
+            this.config = config;
+            this.roomId = roomId;
+            this.username = username;
+            this.recordFrom = recordFrom;
+            this.deadline = deadline;
+            for (Endpoint endpoint : Endpoint.values()) {
+                samples.put(endpoint, new Samples());
+            }
+        }
+
+        @Override
+        public void run() {
+            // Stagger the first request so players do not arrive in lockstep.
+            think(ThreadLocalRandom.current().nextLong(config.thinkMillis + 1));
+            String identity = "roomId=" + encode(roomId) + "&username=" + encode(username);
+            while (System.nanoTime() < deadline) {
+                String question = send(Endpoint.RANDOM_MESSAGE, HttpRequest.newBuilder(
+                    base.resolve("api/random-message?" + identity)).GET());
+                if (question == null) {
+                    think(config.thinkMillis);
+                    continue;
+                }
+                Matcher questionId = QUESTION_ID.matcher(question);
+                List<String> choices = new ArrayList<>(4);
+                Matcher participant = PARTICIPANT_ID.matcher(question);
+                while (participant.find()) {
+                    choices.add(participant.group(1));
+                }
+                if (!questionId.find() || choices.isEmpty()) {
+                    think(config.thinkMillis);
+                    continue;
+                }
+                String form = identity + "&questionId=" + encode(questionId.group(1));
+                think(config.thinkMillis);
+
+                if (totalPoints >= CONTEXT_MIN_POINTS && ThreadLocalRandom.current().nextDouble() < config.contextRate) {
+                    String context = send(Endpoint.CONTEXT, post("api/context", form));
+                    updatePoints(context);
+                    think(config.thinkMillis);
+                }
+
+                String choice = choices.get(ThreadLocalRandom.current().nextInt(choices.size()));
+                String guess = send(Endpoint.GUESS, post("api/guess", form + "&choiceId=" + encode(choice)));
+                updatePoints(guess);
+                think(config.thinkMillis);
+            }
+        }
+
+        private HttpRequest.Builder post(String path, String form) {
+            return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+        }
+
+        /**
+         * Sends the request and records its latency and status. Returns the body of a 2xx
+         * response, or null for anything else.
+         */
+        private String send(Endpoint endpoint, HttpRequest.Builder builder) {
+            builder.timeout(REQUEST_TIMEOUT);
+            if (config.gzip) {
+                builder.header("Accept-Encoding", "gzip");
+            }
+            long start = System.nanoTime();
+            String status;
+            String body = null;
+            try {
+                HttpResponse<InputStream> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+                body = readBody(response);
+                status = Integer.toString(response.statusCode());
+                if (response.statusCode() / 100 != 2) {
+                    body = null;
+                }
+            } catch (HttpTimeoutException ex) {
+                status = "timeout";
+            } catch (IOException ex) {
+                status = "io";
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (start >= recordFrom && start < deadline) {
+                samples.get(endpoint).record(System.nanoTime() - start, status);
+            }
+            return body;
+        }
+
+        private static String readBody(HttpResponse<InputStream> response) throws IOException {
+            boolean gzipped = response.headers().firstValue("Content-Encoding")
+                .map(value -> value.equalsIgnoreCase("gzip"))
+                .orElse(false);
+            try (InputStream raw = response.body();
+                 InputStream in = gzipped ? new GZIPInputStream(raw) : raw) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+
+        private void updatePoints(String body) {
+            if (body == null) {
+                return;
+            }
+            Matcher matcher = TOTAL_POINTS.matcher(body);
+            if (matcher.find()) {
+                totalPoints = Long.parseLong(matcher.group(1));
+            }
+        }
+
+        private void think(long millis) {
+            if (millis <= 0) {
+                return;
+            }
+            // Uniform in [0.5, 1.5) of the configured think time.
+            long jittered = millis / 2 + ThreadLocalRandom.current().nextLong(millis + 1);
+            long remaining = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            try {
+                Thread.sleep(Math.max(0, Math.min(jittered, remaining)));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Latencies and status counts for one endpoint. Confined to one player thread until the run
+     * ends, then merged single-threaded.
+     */
+    private static final class Samples {
+
+        private long[] latencies = new long[256];
+        private int size;
+        private long errors;
+        private final Map<String, Long> statuses = new TreeMap<>();
+
+        private void record(long nanos, String status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            statuses.merge(status, 1L, Long::sum);
+            if (!status.startsWith("2")) {
+                errors++;
+            }
+        }
+
+        private void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            errors += other.errors;
+            other.statuses.forEach((status, count) -> statuses.merge(status, count, Long::sum));
+        }
+
+        private long requests() {
+            return size;
+        }
+
+        private long errors() {
+            return errors;
+        }
+
+        private double meanNanos() {
+            if (size == 0) {
+                return 0;
+            }
+            double total = 0;
+            for (int i = 0; i < size; i++) {
+                total += latencies[i];
+            }
+            return total / size;
+        }
+
+        private long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private static final class Config {
+        private int rooms = 4;
+        private int players = 50;
+        private int durationSeconds = 30;
+        private int warmupSeconds = 5;
+        private long thinkMillis = 500;
+        private double contextRate = 0.25;
+        private int messages = 5_000;
+        private String url;
+        private Path output;
+        private boolean gzip = true;
+        private final List<String> serverArgs = new ArrayList<>();
+
+        private static Config parse(String[] args) {
+            Config config = new Config();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--")) {
+                    config.serverArgs.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                    break;
+                }
+                switch (arg) {
+                    case "--rooms" -> config.rooms = positive(value(args, ++i, arg), arg);
+                    case "--players" -> config.players = positive(value(args, ++i, arg), arg);
+                    case "--duration-s" -> config.durationSeconds = positive(value(args, ++i, arg), arg);
+                    case "--warmup-s" -> config.warmupSeconds = nonNegative(value(args, ++i, arg), arg);
+                    case "--think-ms" -> config.thinkMillis = nonNegative(value(args, ++i, arg), arg);
+                    case "--messages" -> config.messages = positive(value(args, ++i, arg), arg);
+                    case "--context-rate" -> {
+                        String value = value(args, ++i, arg);
+                        try {
+                            config.contextRate = Double.parseDouble(value);
+                        } catch (NumberFormatException ex) {
+                            throw new IllegalArgumentException(arg + " must be a number between 0 and 1");
+                        }
+                        if (config.contextRate < 0 || config.contextRate > 1) {
+                            throw new IllegalArgumentException(arg + " must be a number between 0 and 1");
+                        }
+                    }
+                    case "--url" -> config.url = value(args, ++i, arg);
+                    case "--output" -> config.output = Path.of(value(args, ++i, arg));
+                    case "--no-gzip" -> config.gzip = false;
+                    default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+            if (config.url != null && !config.serverArgs.isEmpty()) {
+                throw new IllegalArgumentException("Server arguments cannot be combined with --url");
+            }
+            return config;
+        }
+
+        private static String value(String[] args, int index, String flag) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException(flag + " requires a value");
+            }
+            return args[index];
+        }
+
+        private static int positive(String value, String flag) {
+            int parsed = nonNegative(value, flag);
+            if (parsed < 1) {
+                throw new IllegalArgumentException(flag + " must be at least 1");
+            }
+            return parsed;
+        }
+
+        private static int nonNegative(String value, String flag) {
+            try {
+                int parsed = Integer.parseInt(value);
+                if (parsed < 0) {
+                    throw new IllegalArgumentException(flag + " must not be negative");
+                }
+                return parsed;
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(flag + " must be a whole number");
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.guessauthor.jeopardy.data;
+
+import io.guessauthor.jeopardy.bench.BenchFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-question data access: the message with its choices, the choices alone, and the surrounding
+ * context. {@code sqlite} reads the export's own tables through the connection pool, {@code compiled}
+ * reads a database prepared by {@link RoomDatabaseCompiler} as rooms do, {@code preloaded}
+ * serves messages from the in-memory corpus, which is what {@code --preload-corpus} does, and
+ * {@code snapshot} reads the memory-mapped {@link RoomSnapshot} used by {@code --snapshot-rooms}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageRepositoryBenchmark {
+
+    @Param({"sqlite", "compiled", "preloaded", "snapshot"})
+    public String backend;
+
+    private MessageRepository repository;
+    private List<String> messageIds;
+    private List<String> authorIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path database = BenchFixtures.temporaryDatabase(BenchFixtures.DEFAULT_MESSAGES, BenchFixtures.DEFAULT_PARTICIPANTS);
+        if ("snapshot".equals(backend)) {
+            RoomDatabaseCompiler.compile(database);
+            Path snapshot = database.resolveSibling(database.getFileName() + ".snap");
+            RoomSnapshotWriter.write(database, snapshot);
+            snapshot.toFile().deleteOnExit();
+            repository = new MessageRepository(RoomSnapshot.open(snapshot, DistractorWeighting.PROPORTIONAL, 1));
+        } else {
+            boolean compiled = "compiled".equals(backend) && RoomDatabaseCompiler.compile(database);
+            repository = new MessageRepository(database, 4, DistractorWeighting.PROPORTIONAL, 1, QueryTracer.disabled(), compiled);
+            if ("preloaded".equals(backend)) {
+                repository.preloadCorpus();
+            }
+            repository.buildTimelineIndex();
+        }
+        messageIds = repository.fetchEligibleMessageIds();
+        authorIds = messageIds.stream()
+            .limit(500)
+            .map(this::authorOf)
+            .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Benchmark
+    public Optional<MessageRepository.Message> fetchMessageById() throws SQLException {
+        return repository.fetchMessageById(randomMessageId());
+    }
+
+    @Benchmark
+    public List<MessageRepository.Choice> buildChoices() throws SQLException {
+        return repository.buildChoices(authorIds.get(ThreadLocalRandom.current().nextInt(authorIds.size())));
+    }
+
+    @Benchmark
+    public MessageRepository.MessageContext fetchContext() throws SQLException {
+        return repository.fetchContext(randomMessageId());
+    }
+
+    private String randomMessageId() {
+        return messageIds.get(ThreadLocalRandom.current().nextInt(messageIds.size()));
+    }
+
+    private String authorOf(String messageId) {
+        try {
+            return repository.fetchMessageById(messageId).orElseThrow().authorId();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
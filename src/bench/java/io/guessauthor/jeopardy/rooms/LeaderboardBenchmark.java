@@ -0,0 +1,106 @@
+package io.guessauthor.jeopardy.rooms;
+
+import io.guessauthor.jeopardy.GameStats;
+import io.guessauthor.jeopardy.QuestionPrefetcher;
+import io.guessauthor.jeopardy.bench.BenchFixtures;
+import io.guessauthor.jeopardy.data.DistractorWeighting;
+import io.guessauthor.jeopardy.data.QueryTracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and updating a room's leaderboard: the first page served by {@code GET /api/rooms}, the
+ * full list used for SSE snapshots, a rank lookup for {@code around=}, and a score change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int players;
+
+    private Room room;
+    private PlayerSession[] sessions;
+
+    @Setup
+    public void setUp() throws Exception {
+        Path database = BenchFixtures.temporaryDatabase(2_000, BenchFixtures.DEFAULT_PARTICIPANTS);
+        Path storage = Files.createTempDirectory("jeopardy-bench-rooms-");
+        storage.toFile().deleteOnExit();
+        RoomManager manager = new RoomManager(
+            storage,
+            1000.0,
+            5.0,
+            0.1,
+            0.2,
+            Duration.ofMinutes(10),
+            false,
+            false,
+            2,
+            DistractorWeighting.PROPORTIONAL,
+            1,
+            QuestionPrefetcher.disabled(),
+            Duration.ofSeconds(1),
+            0,
+            Duration.ZERO,
+            QueryTracer.disabled()
+        );
+        String roomId = manager.createRoomFromPath("Bench", database).roomId();
+        room = manager.room(roomId).orElseThrow();
+
+        Random random = new Random(7);
+        sessions = new PlayerSession[players];
+        for (int i = 0; i < players; i++) {
+            sessions[i] = room.getOrCreatePlayer("player" + i);
+            int correct = random.nextInt(20);
+            for (int j = 0; j < correct; j++) {
+                sessions[i].stats().applyCorrect(100 + random.nextInt(900), 0.1);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<PlayerRecord> firstPage() {
+        return room.leaderboard(0, 100);
+    }
+
+    @Benchmark
+    public List<PlayerRecord> fullLeaderboard() {
+        return room.leaderboard();
+    }
+
+    @Benchmark
+    public int rankOf() {
+        return room.rankOf(randomSession().username());
+    }
+
+    @Benchmark
+    public GameStats.ScoreChange scoreChange() {
+        return randomSession().stats().applyCorrect(500, 0.1);
+    }
+
+    private PlayerSession randomSession() {
+        return sessions[ThreadLocalRandom.current().nextInt(sessions.length)];
+    }
+}
@@ -0,0 +1,117 @@
+package io.guessauthor.jeopardy.util;
+
+import io.guessauthor.jeopardy.GameEngine;
+import io.guessauthor.jeopardy.GameStats.GameSnapshot;
+import io.guessauthor.jeopardy.data.MessageRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding: escaping a message body, and rendering a full question response to the byte
+ * count that would go on the wire, with and without the fragment cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final String PLAIN = "did anyone see the match last night? it was wild lol";
+    private static final String ESCAPED = "she said \"no way\"\nthen left\t\\o/ \u0007 " + PLAIN;
+
+    @Benchmark
+    public String escapePlain() {
+        return JsonUtil.escape(PLAIN);
+    }
+
+    @Benchmark
+    public String escapeWithControlCharacters() {
+        return JsonUtil.escape(ESCAPED);
+    }
+
+    @Benchmark
+    public int questionCached(Question state) throws IOException {
+        return state.render(state.cached);
+    }
+
+    @Benchmark
+    public int questionUncached(Question state) throws IOException {
+        return state.render(state.uncached);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Question {
+
+        @Param({"0", "4"})
+        public int embedKilobytes;
+
+        private GameEngine.QuestionResponse question;
+        private JsonFragmentCache.Scope cached;
+        private JsonFragmentCache.Scope uncached;
+        private final CountingTarget target = new CountingTarget();
+
+        @Setup
+        public void setUp() {
+            List<String> embeds = embedKilobytes == 0
+                ? List.of()
+                : List.of("{\"type\":\"rich\",\"description\":\"" + "x".repeat(embedKilobytes * 1024) + "\"}");
+            MessageRepository.Message message = new MessageRepository.Message(
+                "900000000000123000",
+                ESCAPED,
+                "2023-04-05T12:34:56.789Z",
+                "nick1",
+                "user1#0001",
+                List.of(new MessageRepository.Attachment("https://cdn.example.com/attachments/1/image.png", "image.png")),
+                embeds,
+                "1001",
+                List.of(
+                    new MessageRepository.Choice("1001", "nick1", "user1#0001"),
+                    new MessageRepository.Choice("1002", "user2", "user2#0001"),
+                    new MessageRepository.Choice("1003", "nick3", "user3#0001"),
+                    new MessageRepository.Choice("1004", "user4", "user4#0001")
+                )
+            );
+            question = new GameEngine.QuestionResponse("5b0f3c1e-8a5d-4c8e-9a43-0d5b7f9f2e11", message, new GameSnapshot(1234, 3, 7));
+            cached = new JsonFragmentCache(16L * 1024 * 1024).scope(1);
+            uncached = new JsonFragmentCache(0).scope(1);
+        }
+
+        private int render(JsonFragmentCache.Scope fragments) throws IOException {
+            try (JsonWriter writer = new JsonWriter(target)) {
+                JsonResponses.question(writer, question, fragments);
+                writer.finish();
+            }
+            return target.length;
+        }
+    }
+
+    private static final class CountingTarget implements JsonWriter.Target {
+
+        private int length;
+
+        @Override
+        public OutputStream open() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public void complete(byte[] bytes, int length) {
+            this.length = length;
+        }
+    }
+}
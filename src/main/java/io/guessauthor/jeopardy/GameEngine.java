@@ -2,12 +2,17 @@ package io.guessauthor.jeopardy;
 
 import io.guessauthor.jeopardy.GameStats.GameSnapshot;
 import io.guessauthor.jeopardy.GameStats.ScoreChange;
+import io.guessauthor.jeopardy.GameStats.Spend;
 import io.guessauthor.jeopardy.data.MessageRepository;
+import io.guessauthor.jeopardy.util.TimerWheel;
 
 import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.sql.SQLException;
 
 public final class GameEngine {
@@ -20,7 +25,12 @@ public final class GameEngine {
     private final double streakBonusStep;
     private final double contextCostPercentage;
     private final long questionExpiryNanos;
-    private final ConcurrentHashMap<String, QuestionState> activeQuestions = new ConcurrentHashMap<>();
+    private final TimerWheel expiryWheel;
+    private final QuestionPrefetcher prefetcher;
+    private final AtomicReference<QuestionState> activeQuestion = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<MessageRepository.Message> prefetched = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean refillScheduled = new AtomicBoolean();
+    private volatile long lastActivityNanos = System.nanoTime();
 
     public GameEngine(
         MessageRepository repository,
@@ -30,7 +40,9 @@ public final class GameEngine {
         double decayPerSecond,
         double streakBonusStep,
         double contextCostPercentage,
-        Duration questionExpiry
+        Duration questionExpiry,
+        TimerWheel expiryWheel,
+        QuestionPrefetcher prefetcher
     ) {
         this.repository = repository;
         this.deck = deck;
@@ -40,12 +52,78 @@ public final class GameEngine {
         this.streakBonusStep = streakBonusStep;
         this.contextCostPercentage = contextCostPercentage;
         this.questionExpiryNanos = questionExpiry.toNanos();
+        this.expiryWheel = expiryWheel;
+        this.prefetcher = prefetcher;
     }
 
     public Optional<QuestionResponse> prepareQuestion() {
-        pruneExpiredQuestions();
+        lastActivityNanos = System.nanoTime();
 
-        MessageRepository.Message message = null;
+        MessageRepository.Message message = prefetched.poll();
+        if (message == null) {
+            message = loadNextMessage();
+        }
+        schedulePrefetch();
+
+        if (message == null) {
+            return Optional.empty();
+        }
+
+        // The decay timer starts at hand-out, not when a prefetched message was loaded.
+        String questionId = UUID.randomUUID().toString();
+        QuestionState state = new QuestionState(questionId, message, System.nanoTime());
+        QuestionState replaced = activeQuestion.getAndSet(state);
+        if (replaced != null) {
+            replaced.cancelExpiry();
+        }
+        state.expireWith(expiryWheel.schedule(() -> activeQuestion.compareAndSet(state, null), questionExpiryNanos));
+
+        return Optional.of(new QuestionResponse(questionId, message, stats.snapshot()));
+    }
+
+    /**
+     * Releases buffered questions for a player who has not asked for one within the idle timeout.
+     */
+    public void dropPrefetchedIfIdle(long nowNanos) {
+        if (!prefetched.isEmpty() && nowNanos - lastActivityNanos > prefetcher.idleNanos()) {
+            prefetched.clear();
+        }
+    }
+
+    public int prefetchedCount() {
+        return prefetched.size();
+    }
+
+    public int deckRemaining() {
+        return deck.remaining();
+    }
+
+    private void schedulePrefetch() {
+        if (!prefetcher.enabled() || prefetched.size() >= prefetcher.depth()) {
+            return;
+        }
+        if (refillScheduled.compareAndSet(false, true) && !prefetcher.submit(this::fillPrefetchBuffer)) {
+            refillScheduled.set(false);
+        }
+    }
+
+    private void fillPrefetchBuffer() {
+        try {
+            while (prefetched.size() < prefetcher.depth()) {
+                MessageRepository.Message message = loadNextMessage();
+                if (message == null) {
+                    break;
+                }
+                prefetched.add(message);
+            }
+        } catch (IllegalStateException ex) {
+            // The next hand-out falls back to a synchronous load and surfaces the error.
+        } finally {
+            refillScheduled.set(false);
+        }
+    }
+
+    private MessageRepository.Message loadNextMessage() {
         int attempts = deck.totalSize();
         for (int attempt = 0; attempt < attempts; attempt++) {
             String messageId = deck.nextId();
@@ -70,19 +148,9 @@ public final class GameEngine {
             if (!hasCorrectChoice) {
                 continue;
             }
-            message = resolved;
-            break;
+            return resolved;
         }
-
-        if (message == null) {
-            return Optional.empty();
-        }
-
-        String questionId = UUID.randomUUID().toString();
-        QuestionState state = new QuestionState(message, System.nanoTime());
-        activeQuestions.put(questionId, state);
-
-        return Optional.of(new QuestionResponse(questionId, message, stats.snapshot()));
+        return null;
     }
 
     public GuessEvaluationResult evaluateGuess(String questionId, String choiceId) {
@@ -93,9 +161,10 @@ public final class GameEngine {
         return resolveGuess(questionId, null, true);
     }
 
-    public void forfeitOutstandingQuestions() {
-        for (String questionId : activeQuestions.keySet()) {
-            resolveGuess(questionId, null, true);
+    public void forfeitOutstandingQuestion() {
+        QuestionState state = activeQuestion.get();
+        if (state != null) {
+            resolveGuess(state.questionId(), null, true);
         }
     }
 
@@ -104,10 +173,11 @@ public final class GameEngine {
             return GuessEvaluationResult.invalid();
         }
 
-        QuestionState state = activeQuestions.remove(questionId);
-        if (state == null) {
+        QuestionState state = activeQuestion.get();
+        if (state == null || !state.questionId().equals(questionId) || !activeQuestion.compareAndSet(state, null)) {
             return GuessEvaluationResult.notFound();
         }
+        state.cancelExpiry();
 
         MessageRepository.Message message = state.message();
         String correctChoiceId = message.authorId();
@@ -130,10 +200,10 @@ public final class GameEngine {
             try {
                 contextSnapshot = repository.fetchContext(message.id());
                 if (contextSnapshot == null) {
-                    contextSnapshot = new MessageRepository.MessageContext(null, null);
+                    contextSnapshot = MessageRepository.MessageContext.empty();
                 }
             } catch (SQLException ex) {
-                contextSnapshot = new MessageRepository.MessageContext(null, null);
+                contextSnapshot = MessageRepository.MessageContext.empty();
             }
         }
 
@@ -150,71 +220,80 @@ public final class GameEngine {
             contextSnapshot
         );
 
+        if (!forceIncorrect) {
+            schedulePrefetch();
+        }
         return GuessEvaluationResult.success(response);
     }
 
     public ContextUnlockResult unlockContext(String questionId) {
-        QuestionState state = activeQuestions.get(questionId);
-        if (state == null) {
+        QuestionState state = activeQuestion.get();
+        if (state == null || !state.questionId().equals(questionId)) {
             return ContextUnlockResult.notFound();
         }
 
-        MessageRepository.Message message = state.message();
-        MessageRepository.MessageContext contextData;
-        boolean unlocked;
-        long storedCost;
-
-        synchronized (state) {
-            unlocked = state.isContextUnlocked();
-            contextData = state.context().orElse(null);
-            storedCost = state.contextCost();
-        }
-
-        if (unlocked && contextData != null) {
-            return ContextUnlockResult.success(new ContextResponse(storedCost, contextData, stats.snapshot()));
+        while (true) {
+            CompletableFuture<QuestionState.ContextPurchase> existing = state.contextPurchase();
+            if (existing != null) {
+                QuestionState.ContextPurchase purchase = existing.join();
+                if (purchase != null) {
+                    return ContextUnlockResult.success(new ContextResponse(purchase.cost(), purchase.context(), stats.snapshot()));
+                }
+                // That attempt failed and released its claim; try again as if it never happened.
+                continue;
+            }
+            CompletableFuture<QuestionState.ContextPurchase> claim = new CompletableFuture<>();
+            if (state.claimContextPurchase(claim)) {
+                return buyContext(state, claim);
+            }
         }
+    }
 
-        if (unlocked) {
+    /**
+     * Pays for and fetches context under a claim, so concurrent unlocks of the same question wait for
+     * this one instead of paying again. The price is computed and charged in one step against the
+     * current balance.
+     */
+    private ContextUnlockResult buyContext(QuestionState state, CompletableFuture<QuestionState.ContextPurchase> claim) {
+        QuestionState.ContextPurchase purchase = null;
+        try {
+            Spend spend = stats.spend(this::calculateContextCost);
+            if (spend == null) {
+                return ContextUnlockResult.insufficientFunds();
+            }
+            MessageRepository.MessageContext fetched;
             try {
-                MessageRepository.MessageContext fetched = repository.fetchContext(message.id());
-                synchronized (state) {
-                    state.unlockContext(fetched, storedCost);
-                }
-                return ContextUnlockResult.success(new ContextResponse(storedCost, fetched, stats.snapshot()));
+                fetched = repository.fetchContext(state.message().id());
             } catch (SQLException ex) {
+                stats.refundPoints(spend.cost());
                 return ContextUnlockResult.error();
             }
-        }
-
-        long currentPoints = stats.snapshot().totalPoints();
-        long dynamicCost = calculateContextCost(currentPoints);
-        GameSnapshot snapshotAfterSpend = stats.spendPoints(dynamicCost);
-        if (snapshotAfterSpend == null) {
-            return ContextUnlockResult.insufficientFunds();
-        }
-
-        try {
-            MessageRepository.MessageContext fetched = repository.fetchContext(message.id());
             if (fetched == null) {
-                fetched = new MessageRepository.MessageContext(null, null);
+                fetched = MessageRepository.MessageContext.empty();
             }
-            synchronized (state) {
-                state.unlockContext(fetched, dynamicCost);
+            purchase = new QuestionState.ContextPurchase(fetched, spend.cost());
+            return ContextUnlockResult.success(new ContextResponse(spend.cost(), fetched, spend.snapshot()));
+        } finally {
+            if (purchase == null) {
+                state.releaseContextPurchase(claim);
             }
-            return ContextUnlockResult.success(new ContextResponse(dynamicCost, fetched, snapshotAfterSpend));
-        } catch (SQLException ex) {
-            stats.refundPoints(dynamicCost);
-            return ContextUnlockResult.error();
+            claim.complete(purchase);
         }
     }
 
-    public void pruneExpiredQuestions() {
-        long cutoff = System.nanoTime() - questionExpiryNanos;
-        activeQuestions.entrySet().removeIf(entry -> entry.getValue().issuedAtNanos() < cutoff);
+    /**
+     * Drops the outstanding question without scoring it, e.g. when the room is unloaded, so its
+     * expiry timeout stops holding this engine.
+     */
+    public void discardActiveQuestion() {
+        QuestionState state = activeQuestion.getAndSet(null);
+        if (state != null) {
+            state.cancelExpiry();
+        }
     }
 
-    public ConcurrentHashMap<String, QuestionState> activeQuestions() {
-        return activeQuestions;
+    public boolean hasActiveQuestion() {
+        return activeQuestion.get() != null;
     }
 
     public double basePoints() {
@@ -1,50 +1,106 @@
 package io.guessauthor.jeopardy;
 
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A player's points and streaks, held as one immutable {@link GameSnapshot} and replaced by
+ * compare-and-set. Every change is computed from the snapshot it replaces, so concurrent guesses and
+ * purchases never lose an update, and reading the score is a single volatile load.
+ */
 public final class GameStats {
 
-    private long totalPoints;
-    private int currentStreak;
-    private int bestStreak;
+    private final AtomicReference<GameSnapshot> state;
+    private final Runnable changeListener;
 
-    public synchronized GameSnapshot snapshot() {
-        return new GameSnapshot(totalPoints, currentStreak, bestStreak);
+    public GameStats() {
+        this(() -> { });
     }
 
-    public synchronized ScoreChange applyCorrect(double basePoints, double streakBonusStep) {
-        currentStreak += 1;
-        if (currentStreak > bestStreak) {
-            bestStreak = currentStreak;
-        }
-        double multiplier = 1.0 + streakBonusStep * Math.max(0, currentStreak - 1);
-        long awarded = Math.max(0L, Math.round(basePoints * multiplier));
-        totalPoints += awarded;
-        return new ScoreChange(awarded, basePoints, multiplier, snapshot());
+    /**
+     * @param changeListener invoked after every change to points or streaks
+     */
+    public GameStats(Runnable changeListener) {
+        this(new GameSnapshot(0, 0, 0), changeListener);
     }
 
-    public synchronized ScoreChange applyIncorrect(double basePoints) {
-        long before = totalPoints;
-        long after = before / 2;
-        long lost = before - after;
-        totalPoints = after;
-        currentStreak = 0;
-        return new ScoreChange(-lost, basePoints, 0.0, snapshot());
+    /**
+     * @param initial score to start from, e.g. when a room is reloaded
+     */
+    public GameStats(GameSnapshot initial, Runnable changeListener) {
+        this.state = new AtomicReference<>(initial);
+        this.changeListener = changeListener;
     }
 
-    public synchronized GameSnapshot spendPoints(long cost) {
-        if (cost < 0 || totalPoints < cost) {
-            return null;
-        }
-        totalPoints -= cost;
-        return snapshot();
+    public GameSnapshot snapshot() {
+        return state.get();
+    }
+
+    public ScoreChange applyCorrect(double basePoints, double streakBonusStep) {
+        GameSnapshot before;
+        GameSnapshot after;
+        double multiplier;
+        long awarded;
+        do {
+            before = state.get();
+            int streak = before.currentStreak() + 1;
+            multiplier = 1.0 + streakBonusStep * Math.max(0, streak - 1);
+            awarded = Math.max(0L, Math.round(basePoints * multiplier));
+            after = new GameSnapshot(before.totalPoints() + awarded, streak, Math.max(before.bestStreak(), streak));
+        } while (!state.compareAndSet(before, after));
+        changeListener.run();
+        return new ScoreChange(awarded, basePoints, multiplier, after);
     }
 
-    public synchronized void refundPoints(long amount) {
-        if (amount > 0) {
-            totalPoints += amount;
+    public ScoreChange applyIncorrect(double basePoints) {
+        GameSnapshot before;
+        GameSnapshot after;
+        do {
+            before = state.get();
+            after = new GameSnapshot(before.totalPoints() / 2, 0, before.bestStreak());
+        } while (!state.compareAndSet(before, after));
+        changeListener.run();
+        return new ScoreChange(after.totalPoints() - before.totalPoints(), basePoints, 0.0, after);
+    }
+
+    /**
+     * Prices a purchase from the current points and pays for it in one step, so the price always
+     * matches the balance it was charged against.
+     *
+     * @param pricing maps the current total to a cost
+     * @return the cost charged and the score after it, or {@code null} if the player cannot afford it
+     */
+    public Spend spend(LongUnaryOperator pricing) {
+        GameSnapshot before;
+        GameSnapshot after;
+        long cost;
+        do {
+            before = state.get();
+            cost = pricing.applyAsLong(before.totalPoints());
+            if (cost < 0 || before.totalPoints() < cost) {
+                return null;
+            }
+            after = new GameSnapshot(before.totalPoints() - cost, before.currentStreak(), before.bestStreak());
+        } while (!state.compareAndSet(before, after));
+        changeListener.run();
+        return new Spend(cost, after);
+    }
+
+    public void refundPoints(long amount) {
+        if (amount <= 0) {
+            return;
         }
+        state.updateAndGet(current -> new GameSnapshot(
+            current.totalPoints() + amount,
+            current.currentStreak(),
+            current.bestStreak()
+        ));
+        changeListener.run();
     }
 
     public record GameSnapshot(long totalPoints, int currentStreak, int bestStreak) {}
 
     public record ScoreChange(long awardedPoints, double basePoints, double streakMultiplier, GameSnapshot snapshot) {}
+
+    public record Spend(long cost, GameSnapshot snapshot) {}
 }
@@ -1,38 +1,102 @@
 package io.guessauthor.jeopardy;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Per-player walk over a room's shared message id list. Instead of copying and shuffling the ids,
+ * each pass draws a random key for a Feistel permutation of the deck positions, so the deck costs
+ * a cursor and a key no matter how large the room is. Every id is returned once per pass.
+ */
 public final class MessageDeck {
 
-    private final List<String> allIds;
-    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private static final int ROUNDS = 4;
 
+    private final List<String> ids;
+    private final int halfBits;
+    private final long halfMask;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int position;
+    private long passKey;
+
+    /**
+     * @param ids the room's immutable id list; it is shared, not copied
+     */
     public MessageDeck(List<String> ids) {
         if (ids == null || ids.isEmpty()) {
             throw new IllegalArgumentException("Message deck requires at least one id.");
         }
-        this.allIds = new ArrayList<>(ids);
-        reshuffle();
+        this.ids = ids;
+        int bits = Math.max(2, Long.SIZE - Long.numberOfLeadingZeros(ids.size() - 1L));
+        if ((bits & 1) == 1) {
+            bits++;
+        }
+        this.halfBits = bits / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        this.passKey = ThreadLocalRandom.current().nextLong();
+    }
+
+    String nextId() {
+        int next;
+        long key;
+        lock.lock();
+        try {
+            if (position >= ids.size()) {
+                position = 0;
+                passKey = ThreadLocalRandom.current().nextLong();
+            }
+            next = position++;
+            key = passKey;
+        } finally {
+            lock.unlock();
+        }
+        return ids.get(permute(next, key));
     }
 
-    synchronized String nextId() {
-        if (queue.isEmpty()) {
-            reshuffle();
+    int totalSize() {
+        return ids.size();
+    }
+
+    /**
+     * Ids left before the current pass ends and the deck reshuffles.
+     */
+    int remaining() {
+        lock.lock();
+        try {
+            return ids.size() - position;
+        } finally {
+            lock.unlock();
         }
-        return queue.isEmpty() ? null : queue.removeFirst();
     }
 
-    synchronized int totalSize() {
-        return allIds.size();
+    /**
+     * Cycle-walks the Feistel permutation until it lands inside the deck, which keeps the mapping
+     * a bijection on {@code [0, size)}. The Feistel domain is at most four times the deck size.
+     */
+    private int permute(int value, long key) {
+        long mapped = value;
+        do {
+            mapped = feistel(mapped, key);
+        } while (mapped >= ids.size());
+        return (int) mapped;
+    }
+
+    private long feistel(long value, long key) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (mix(right, key + round) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
     }
 
-    private void reshuffle() {
-        List<String> copy = new ArrayList<>(allIds);
-        Collections.shuffle(copy);
-        queue.clear();
-        queue.addAll(copy);
+    private static long mix(long value, long key) {
+        long z = value ^ (key * 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 }
@@ -0,0 +1,81 @@
+package io.guessauthor.jeopardy;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared background executor that fills each player's buffer of ready-to-serve questions.
+ */
+public final class QuestionPrefetcher implements AutoCloseable {
+
+    private static final QuestionPrefetcher DISABLED = new QuestionPrefetcher(null, 0, Duration.ZERO);
+
+    private final ExecutorService executor;
+    private final int depth;
+    private final long idleNanos;
+
+    private QuestionPrefetcher(ExecutorService executor, int depth, Duration idleTimeout) {
+        this.executor = executor;
+        this.depth = depth;
+        this.idleNanos = idleTimeout.toNanos();
+    }
+
+    public static QuestionPrefetcher create(int depth, int threads, Duration idleTimeout) {
+        if (depth <= 0) {
+            return DISABLED;
+        }
+        return new QuestionPrefetcher(
+            Executors.newFixedThreadPool(Math.max(threads, 1), daemonThreads()),
+            depth,
+            idleTimeout
+        );
+    }
+
+    public static QuestionPrefetcher disabled() {
+        return DISABLED;
+    }
+
+    public boolean enabled() {
+        return depth > 0;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public long idleNanos() {
+        return idleNanos;
+    }
+
+    boolean submit(Runnable task) {
+        if (executor == null) {
+            return false;
+        }
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "question-prefetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
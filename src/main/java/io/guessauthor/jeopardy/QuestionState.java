@@ -1,22 +1,29 @@
 package io.guessauthor.jeopardy;
 
 import io.guessauthor.jeopardy.data.MessageRepository;
+import io.guessauthor.jeopardy.util.TimerWheel;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 final class QuestionState {
 
+    private final String questionId;
     private final MessageRepository.Message message;
     private final long issuedAtNanos;
-    private boolean contextUnlocked;
-    private MessageRepository.MessageContext context;
-    private long contextCost;
+    private volatile TimerWheel.Timeout expiry;
+    private final AtomicReference<CompletableFuture<ContextPurchase>> contextPurchase = new AtomicReference<>();
 
-    QuestionState(MessageRepository.Message message, long issuedAtNanos) {
+    QuestionState(String questionId, MessageRepository.Message message, long issuedAtNanos) {
+        this.questionId = questionId;
         this.message = message;
         this.issuedAtNanos = issuedAtNanos;
     }
 
+    String questionId() {
+        return questionId;
+    }
+
     MessageRepository.Message message() {
         return message;
     }
@@ -25,21 +32,41 @@ final class QuestionState {
         return issuedAtNanos;
     }
 
-    synchronized boolean isContextUnlocked() {
-        return contextUnlocked;
+    void expireWith(TimerWheel.Timeout timeout) {
+        this.expiry = timeout;
     }
 
-    synchronized Optional<MessageRepository.MessageContext> context() {
-        return Optional.ofNullable(context);
+    /**
+     * Called once the question leaves its player's slot, so the wheel stops referencing it.
+     */
+    void cancelExpiry() {
+        TimerWheel.Timeout timeout = expiry;
+        if (timeout != null) {
+            timeout.cancel();
+        }
     }
 
-    synchronized long contextCost() {
-        return contextCost;
+    /**
+     * The purchase of this question's context, still pending while the request that claimed it pays
+     * and fetches, or {@code null} if nobody has claimed it.
+     */
+    CompletableFuture<ContextPurchase> contextPurchase() {
+        return contextPurchase.get();
     }
 
-    synchronized void unlockContext(MessageRepository.MessageContext context, long cost) {
-        this.context = context;
-        this.contextUnlocked = true;
-        this.contextCost = cost;
+    /**
+     * Claims the purchase for the calling request, unless another request already has.
+     */
+    boolean claimContextPurchase(CompletableFuture<ContextPurchase> claim) {
+        return contextPurchase.compareAndSet(null, claim);
     }
+
+    /**
+     * Gives up a claim that did not end in a purchase, so a later request can try again.
+     */
+    void releaseContextPurchase(CompletableFuture<ContextPurchase> claim) {
+        contextPurchase.compareAndSet(claim, null);
+    }
+
+    record ContextPurchase(MessageRepository.MessageContext context, long cost) {}
 }
@@ -1,13 +1,24 @@
 package io.guessauthor.jeopardy;
 
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import io.guessauthor.jeopardy.data.DistractorWeighting;
+import io.guessauthor.jeopardy.data.QueryTracer;
 import io.guessauthor.jeopardy.http.ContextHandler;
 import io.guessauthor.jeopardy.http.GuessHandler;
+import io.guessauthor.jeopardy.http.InstrumentedHandler;
+import io.guessauthor.jeopardy.http.MetricsHandler;
 import io.guessauthor.jeopardy.http.RandomMessageHandler;
+import io.guessauthor.jeopardy.http.ResidencyHandler;
+import io.guessauthor.jeopardy.http.RoomEventsHandler;
 import io.guessauthor.jeopardy.http.RoomsHandler;
 import io.guessauthor.jeopardy.http.StaticFileHandler;
 import io.guessauthor.jeopardy.rooms.RoomManager;
 import io.guessauthor.jeopardy.rooms.RoomManager.RoomCreationResult;
+import io.guessauthor.jeopardy.util.HttpUtil;
+import io.guessauthor.jeopardy.util.JsonFragmentCache;
+import io.guessauthor.jeopardy.util.RequestMetrics;
+import io.guessauthor.jeopardy.util.ResponseCompression;
 
 import java.io.IOException;
 import java.net.InetAddress;
@@ -19,8 +30,11 @@ import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Locale;
 import java.util.Enumeration;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public final class ServerLauncher {
 
@@ -29,40 +43,73 @@ public final class ServerLauncher {
     private static final double STREAK_BONUS_STEP = 0.2;
     private static final double CONTEXT_PERCENTAGE = 0.10;
     private static final Duration QUESTION_EXPIRY = Duration.ofMinutes(10);
+    private static final Duration PREFETCH_IDLE_TIMEOUT = Duration.ofMinutes(2);
+    private static final int PREFETCH_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int DEFAULT_BOUNDED_THREADS = Runtime.getRuntime().availableProcessors() * 4;
+    private static final int DEFAULT_BOUNDED_QUEUE = 256;
 
     private ServerLauncher() {
     }
 
     public static void main(String[] args) throws IOException {
-        if (!ensureSqliteDriver()) {
-            System.err.println("SQLite JDBC driver not found. Place sqlite-jdbc.jar on the classpath.");
-            return;
-        }
-
-        Config config;
         try {
-            config = parseArguments(args);
+            start(args);
+        } catch (IllegalStateException ex) {
+            System.err.println(ex.getMessage());
         } catch (IllegalArgumentException ex) {
             System.err.println(ex.getMessage());
             printUsage();
-            return;
+        }
+    }
+
+    /**
+     * Parses the command-line flags, builds the room manager and starts the HTTP server. Returns the
+     * running server so an embedding process, such as the load generator, can stop it again.
+     *
+     * @throws IllegalArgumentException if a flag is malformed
+     * @throws IllegalStateException if the SQLite driver is not on the classpath
+     */
+    public static HttpServer start(String... args) throws IOException {
+        if (!ensureSqliteDriver()) {
+            throw new IllegalStateException("SQLite JDBC driver not found. Place sqlite-jdbc.jar on the classpath.");
         }
 
+        Config config = parseArguments(args);
+
         Files.createDirectories(config.roomsDir);
 
+        QueryTracer queryTracer = config.traceSql || config.slowQueryMillis > 0
+            ? QueryTracer.create(Duration.ofMillis(config.slowQueryMillis))
+            : QueryTracer.disabled();
+
         RoomManager roomManager = new RoomManager(
             config.roomsDir,
             BASE_POINTS,
             DECAY_PER_SECOND,
             STREAK_BONUS_STEP,
             CONTEXT_PERCENTAGE,
-            QUESTION_EXPIRY
+            QUESTION_EXPIRY,
+            config.preloadCorpus,
+            config.snapshotRooms,
+            config.dbPoolSize,
+            config.distractorWeighting,
+            config.contextWindow,
+            QuestionPrefetcher.create(config.prefetchDepth, PREFETCH_THREADS, PREFETCH_IDLE_TIMEOUT),
+            Duration.ofMillis(config.leaderboardIntervalMillis),
+            config.roomBudgetMegabytes * 1024L * 1024L,
+            Duration.ofMinutes(config.roomIdleTtlMinutes),
+            queryTracer
         );
 
+        int restoring = roomManager.restoreRooms();
+        if (restoring > 0) {
+            System.out.printf("Restoring %d rooms from %s in the background.%n", restoring, config.roomsDir);
+        }
+
         if (config.databasePath != null) {
             try {
                 RoomCreationResult result = roomManager.createRoomFromPath(config.roomName, config.databasePath);
-                System.out.printf("Default room created. Share this room id: %s%n", result.roomId());
+                System.out.printf("Default room ready. Share this room id: %s%n", result.roomId());
             } catch (Exception ex) {
                 throw new IOException("Failed to create default room from database path.", ex);
             }
@@ -74,19 +121,56 @@ public final class ServerLauncher {
             System.err.printf("Warning: web root '%s' does not exist. Static files may 404.%n", config.webRoot);
         }
 
+        JsonFragmentCache fragmentCache = new JsonFragmentCache(config.fragmentCacheMegabytes * 1024L * 1024L);
+        HttpUtil.useCompression(new ResponseCompression(config.gzipMinBytes));
+
+        RequestMetrics metrics = new RequestMetrics();
+        ExecutorService executor = createExecutor(config);
+
         HttpServer server = HttpServer.create(new InetSocketAddress(config.port), 0);
-        server.createContext("/api/rooms", new RoomsHandler(roomManager));
-        server.createContext("/api/random-message", new RandomMessageHandler(roomManager));
-        server.createContext("/api/guess", new GuessHandler(roomManager));
-        server.createContext("/api/context", new ContextHandler(roomManager));
-        server.createContext("/", new StaticFileHandler(config.webRoot));
+        server.createContext("/api/rooms", instrumented(metrics, "rooms", new RoomsHandler(roomManager)));
+        server.createContext("/api/room-events", new RoomEventsHandler(roomManager));
+        server.createContext("/api/residency", new ResidencyHandler(roomManager, fragmentCache));
+        server.createContext("/api/metrics", new MetricsHandler(roomManager, fragmentCache, metrics, queryTracer, executor));
+        server.createContext("/api/random-message", instrumented(metrics, "random-message", new RandomMessageHandler(roomManager, fragmentCache)));
+        server.createContext("/api/guess", instrumented(metrics, "guess", new GuessHandler(roomManager, fragmentCache)));
+        server.createContext("/api/context", instrumented(metrics, "context", new ContextHandler(roomManager, fragmentCache)));
+        server.createContext("/", instrumented(metrics, "static", new StaticFileHandler(config.webRoot)));
 
-        ExecutorService executor = Executors.newCachedThreadPool();
         server.setExecutor(executor);
         server.start();
 
         String hostAddress = resolveHostAddress();
-        System.out.printf(Locale.US, "Server running at http://%s:%d/%n", hostAddress, config.port);
+        System.out.printf(Locale.US, "Server running at http://%s:%d/ (%s executor)%n",
+            hostAddress, config.port, config.executorMode.label);
+        return server;
+    }
+
+    /**
+     * Event streams and the diagnostics endpoints are left out: a stream's duration is the life of
+     * the subscription, which would swamp the latency histograms.
+     */
+    private static HttpHandler instrumented(RequestMetrics metrics, String name, HttpHandler handler) {
+        return new InstrumentedHandler(handler, metrics.register(name));
+    }
+
+    /**
+     * Builds the request executor. The bounded pool rejects work once its queue is full; the HTTP
+     * server then closes that connection instead of letting the backlog grow without limit.
+     */
+    private static ExecutorService createExecutor(Config config) {
+        return switch (config.executorMode) {
+            case CACHED -> Executors.newCachedThreadPool();
+            case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+            case BOUNDED -> new ThreadPoolExecutor(
+                config.threads,
+                config.threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.queueCapacity),
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+        };
     }
 
     private static boolean ensureSqliteDriver() {
@@ -99,7 +183,7 @@ public final class ServerLauncher {
     }
 
     private static void printUsage() {
-        System.out.println("Usage: java ... io.guessauthor.jeopardy.ServerLauncher [--db PATH] [--room-name NAME] [--port PORT] [--rooms-dir DIR] [--web-root DIR]");
+        System.out.println("Usage: java ... io.guessauthor.jeopardy.ServerLauncher [--db PATH] [--room-name NAME] [--port PORT] [--rooms-dir DIR] [--web-root DIR] [--preload-corpus] [--snapshot-rooms] [--db-pool-size N] [--distractor-weighting uniform|proportional|sqrt] [--context-window K] [--prefetch-depth N] [--executor cached|virtual|bounded] [--threads N] [--queue N] [--leaderboard-interval-ms N] [--room-budget-mb N] [--room-idle-ttl-minutes N] [--fragment-cache-mb N] [--gzip-min-bytes N] [--trace-sql] [--slow-query-ms N]");
     }
 
     private static Config parseArguments(String[] args) {
@@ -138,6 +222,87 @@ public final class ServerLauncher {
                     }
                     config.webRoot = Path.of(args[++i]);
                 }
+                case "--preload-corpus" -> config.preloadCorpus = true;
+                case "--snapshot-rooms" -> config.snapshotRooms = true;
+                case "--db-pool-size" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--db-pool-size requires a value");
+                    }
+                    config.dbPoolSize = parsePositiveInt(args[++i], "--db-pool-size");
+                }
+                case "--distractor-weighting" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--distractor-weighting requires a value");
+                    }
+                    config.distractorWeighting = DistractorWeighting.parse(args[++i]);
+                }
+                case "--context-window" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--context-window requires a value");
+                    }
+                    config.contextWindow = parsePositiveInt(args[++i], "--context-window");
+                }
+                case "--prefetch-depth" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--prefetch-depth requires a value");
+                    }
+                    config.prefetchDepth = parseNonNegativeInt(args[++i], "--prefetch-depth");
+                }
+                case "--executor" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--executor requires a value");
+                    }
+                    config.executorMode = ExecutorMode.parse(args[++i]);
+                }
+                case "--threads" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--threads requires a value");
+                    }
+                    config.threads = parsePositiveInt(args[++i], "--threads");
+                }
+                case "--queue" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--queue requires a value");
+                    }
+                    config.queueCapacity = parsePositiveInt(args[++i], "--queue");
+                }
+                case "--leaderboard-interval-ms" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--leaderboard-interval-ms requires a value");
+                    }
+                    config.leaderboardIntervalMillis = parsePositiveInt(args[++i], "--leaderboard-interval-ms");
+                }
+                case "--room-budget-mb" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--room-budget-mb requires a value");
+                    }
+                    config.roomBudgetMegabytes = parseNonNegativeInt(args[++i], "--room-budget-mb");
+                }
+                case "--room-idle-ttl-minutes" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--room-idle-ttl-minutes requires a value");
+                    }
+                    config.roomIdleTtlMinutes = parseNonNegativeInt(args[++i], "--room-idle-ttl-minutes");
+                }
+                case "--fragment-cache-mb" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--fragment-cache-mb requires a value");
+                    }
+                    config.fragmentCacheMegabytes = parseNonNegativeInt(args[++i], "--fragment-cache-mb");
+                }
+                case "--gzip-min-bytes" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--gzip-min-bytes requires a value");
+                    }
+                    config.gzipMinBytes = parseNonNegativeInt(args[++i], "--gzip-min-bytes");
+                }
+                case "--trace-sql" -> config.traceSql = true;
+                case "--slow-query-ms" -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("--slow-query-ms requires a value");
+                    }
+                    config.slowQueryMillis = parseNonNegativeInt(args[++i], "--slow-query-ms");
+                }
                 default -> {
                     if (arg.startsWith("--")) {
                         throw new IllegalArgumentException("Unknown argument: " + arg);
@@ -165,6 +330,30 @@ public final class ServerLauncher {
         }
     }
 
+    private static int parsePositiveInt(String value, String flag) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 1) {
+                throw new IllegalArgumentException(flag + " must be at least 1");
+            }
+            return parsed;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(flag + " requires a number");
+        }
+    }
+
+    private static int parseNonNegativeInt(String value, String flag) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException(flag + " must not be negative");
+            }
+            return parsed;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(flag + " requires a number");
+        }
+    }
+
     private static String resolveHostAddress() {
         try {
             Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
@@ -194,5 +383,42 @@ public final class ServerLauncher {
         int port = 8080;
         Path roomsDir = Path.of(System.getenv().getOrDefault("ROOMS_DIR", "rooms"));
         Path webRoot = Path.of(System.getenv().getOrDefault("WEB_ROOT", "public"));
+        boolean preloadCorpus = Boolean.parseBoolean(System.getenv().getOrDefault("PRELOAD_CORPUS", "false"));
+        boolean snapshotRooms = Boolean.parseBoolean(System.getenv().getOrDefault("SNAPSHOT_ROOMS", "false"));
+        int dbPoolSize = 4;
+        DistractorWeighting distractorWeighting = DistractorWeighting.PROPORTIONAL;
+        int contextWindow = 1;
+        int prefetchDepth = 2;
+        ExecutorMode executorMode = ExecutorMode.parse(System.getenv().getOrDefault("HTTP_EXECUTOR", "cached"));
+        int threads = DEFAULT_BOUNDED_THREADS;
+        int queueCapacity = DEFAULT_BOUNDED_QUEUE;
+        int leaderboardIntervalMillis = 1_000;
+        int roomBudgetMegabytes = 0;
+        int roomIdleTtlMinutes = 120;
+        int fragmentCacheMegabytes = 16;
+        int gzipMinBytes = 1_024;
+        boolean traceSql;
+        int slowQueryMillis = 0;
+    }
+
+    private enum ExecutorMode {
+        CACHED("cached"),
+        VIRTUAL("virtual"),
+        BOUNDED("bounded");
+
+        private final String label;
+
+        ExecutorMode(String label) {
+            this.label = label;
+        }
+
+        static ExecutorMode parse(String value) {
+            for (ExecutorMode mode : values()) {
+                if (mode.label.equalsIgnoreCase(value.trim())) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("--executor must be one of cached, virtual, bounded");
+        }
     }
 }
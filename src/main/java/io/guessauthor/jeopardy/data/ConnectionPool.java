@@ -0,0 +1,242 @@
+package io.guessauthor.jeopardy.data;
+
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small fixed-size pool of read-only SQLite connections. Each connection keeps its own cache of
+ * prepared statements keyed by SQL text, so hot queries are parsed once per connection. A
+ * connection whose work throws {@link SQLException} is closed rather than returned, statements and
+ * all, and a fresh one is opened on demand.
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+    // Waiters re-check periodically in case a discarded connection could not be replaced.
+    private static final long REOPEN_CHECK_MILLIS = 100;
+    private static final long MMAP_SIZE_BYTES = 256L * 1024 * 1024;
+    private static final int CACHE_SIZE_KIB = 16 * 1024;
+
+    private final String jdbcUrl;
+    private final int maxSize;
+    private final LinkedBlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile boolean closed;
+
+    ConnectionPool(String jdbcUrl, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Connection pool size must be at least 1.");
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Runs {@code work} on a borrowed connection and returns the connection to the pool, or
+     * discards it if {@code work} threw {@link SQLException}.
+     */
+    <T> T withConnection(ConnectionWork<T> work) throws SQLException {
+        PooledConnection pooled = borrow();
+        T result;
+        try {
+            result = work.apply(pooled);
+        } catch (SQLException ex) {
+            discard(pooled);
+            throw ex;
+        } catch (RuntimeException | Error ex) {
+            release(pooled);
+            throw ex;
+        }
+        release(pooled);
+        return result;
+    }
+
+    private PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        borrows.increment();
+        PooledConnection pooled = idle.poll();
+        if (pooled != null) {
+            return pooled;
+        }
+        pooled = tryOpen();
+        if (pooled != null) {
+            return pooled;
+        }
+
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.SECONDS.toNanos(BORROW_TIMEOUT_SECONDS);
+        try {
+            while (pooled == null && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                pooled = idle.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(REOPEN_CHECK_MILLIS)), TimeUnit.NANOSECONDS);
+                if (pooled == null) {
+                    pooled = tryOpen();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", ex);
+        } finally {
+            long waited = System.nanoTime() - started;
+            waits.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+        if (pooled == null) {
+            throw new SQLException(closed ? "Connection pool is closed." : "Timed out waiting for a database connection.");
+        }
+        return pooled;
+    }
+
+    MessageRepository.PoolStats stats() {
+        return new MessageRepository.PoolStats(
+            maxSize,
+            opened.get(),
+            idle.size(),
+            borrows.sum(),
+            waits.sum(),
+            totalWaitNanos.sum(),
+            maxWaitNanos.get()
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        drainIdle();
+    }
+
+    private void drainIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            pooled.closeQuietly();
+        }
+    }
+
+    private PooledConnection tryOpen() throws SQLException {
+        while (true) {
+            int current = opened.get();
+            if (current >= maxSize) {
+                return null;
+            }
+            if (opened.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        try {
+            return new PooledConnection(openReadOnly());
+        } catch (SQLException ex) {
+            opened.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    private Connection openReadOnly() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        Connection connection = DriverManager.getConnection(jdbcUrl, config.toProperties());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA query_only = ON");
+            statement.execute("PRAGMA mmap_size = " + MMAP_SIZE_BYTES);
+            statement.execute("PRAGMA cache_size = -" + CACHE_SIZE_KIB);
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+        return connection;
+    }
+
+    private void release(PooledConnection pooled) {
+        if (closed) {
+            pooled.closeQuietly();
+            return;
+        }
+        idle.offer(pooled);
+        // close() may have drained the queue between the check and the offer.
+        if (closed) {
+            drainIdle();
+        }
+    }
+
+    /**
+     * Closes a failed connection and hands a fresh one to the next borrower. If that cannot be
+     * opened, the slot is freed and a later borrow retries.
+     */
+    private void discard(PooledConnection pooled) {
+        pooled.closeQuietly();
+        if (!closed) {
+            try {
+                release(new PooledConnection(openReadOnly()));
+                return;
+            } catch (SQLException ex) {
+                System.err.printf("Could not replace a failed database connection: %s%n", ex.getMessage());
+            }
+        }
+        opened.decrementAndGet();
+    }
+
+    @FunctionalInterface
+    interface ConnectionWork<T> {
+        T apply(PooledConnection connection) throws SQLException;
+    }
+
+    /**
+     * Borrowed connection, valid only inside {@link #withConnection}. Statements returned by
+     * {@link #prepare(String)} are owned by the cache and must not be closed by callers.
+     */
+    final class PooledConnection {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        Connection connection() {
+            return connection;
+        }
+
+        String jdbcUrl() {
+            return jdbcUrl;
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        private void closeQuietly() {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // The connection is being dropped either way.
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.guessauthor.jeopardy.data;
+
+import io.guessauthor.jeopardy.data.MessageRepository.Choice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted sampler over a room's active participants, built once from per-participant message
+ * counts. Uses Vose's alias method so each draw is O(1) regardless of how many participants exist.
+ */
+final class DistractorSampler {
+
+    private static final int ATTEMPTS_PER_DRAW = 32;
+
+    private final Choice[] participants;
+    private final Map<String, Integer> indexById;
+    private final double[] probability;
+    private final int[] alias;
+
+    private DistractorSampler(Choice[] participants, double[] weights) {
+        this.participants = participants;
+        this.indexById = new HashMap<>(participants.length * 2);
+        for (int i = 0; i < participants.length; i++) {
+            indexById.put(participants[i].participantId(), i);
+        }
+        this.probability = new double[participants.length];
+        this.alias = new int[participants.length];
+        buildAliasTable(weights);
+    }
+
+    /**
+     * Builds a sampler from parallel participant and message-count lists. Participants without
+     * any messages are dropped, matching the eligibility rule for wrong answers.
+     */
+    static DistractorSampler build(List<Choice> participants, long[] messageCounts, DistractorWeighting weighting) {
+        List<Choice> active = new ArrayList<>(participants.size());
+        List<Double> weights = new ArrayList<>(participants.size());
+        for (int i = 0; i < participants.size(); i++) {
+            double weight = weighting.weight(messageCounts[i]);
+            if (weight > 0.0) {
+                active.add(participants.get(i));
+                weights.add(weight);
+            }
+        }
+        double[] weightArray = new double[weights.size()];
+        for (int i = 0; i < weightArray.length; i++) {
+            weightArray[i] = weights.get(i);
+        }
+        return new DistractorSampler(active.toArray(new Choice[0]), weightArray);
+    }
+
+    int size() {
+        return participants.length;
+    }
+
+    Choice choice(String participantId) {
+        Integer index = participantId == null ? null : indexById.get(participantId);
+        return index == null ? null : participants[index];
+    }
+
+    /**
+     * Draws up to {@code count} distinct participants other than {@code excludedId}.
+     */
+    List<Choice> sample(String excludedId, int count) {
+        Integer excluded = excludedId == null ? null : indexById.get(excludedId);
+        int excludedIndex = excluded == null ? -1 : excluded;
+        int available = participants.length - (excludedIndex >= 0 ? 1 : 0);
+        int target = Math.min(Math.max(count, 0), available);
+        if (target == 0) {
+            return List.of();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] picked = new int[target];
+        int found = 0;
+        int maxAttempts = target * ATTEMPTS_PER_DRAW;
+        for (int attempt = 0; attempt < maxAttempts && found < target; attempt++) {
+            int candidate = draw(random);
+            if (candidate != excludedIndex && !contains(picked, found, candidate)) {
+                picked[found++] = candidate;
+            }
+        }
+
+        // Heavily skewed weights can starve the rejection loop; fill the rest deterministically.
+        if (found < target) {
+            int offset = random.nextInt(participants.length);
+            for (int step = 0; step < participants.length && found < target; step++) {
+                int candidate = (offset + step) % participants.length;
+                if (candidate != excludedIndex && !contains(picked, found, candidate)) {
+                    picked[found++] = candidate;
+                }
+            }
+        }
+
+        List<Choice> choices = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            choices.add(participants[picked[i]]);
+        }
+        return choices;
+    }
+
+    private int draw(ThreadLocalRandom random) {
+        int column = random.nextInt(participants.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    private void buildAliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            return;
+        }
+        double total = 0.0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
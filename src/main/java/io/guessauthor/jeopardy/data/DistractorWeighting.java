@@ -0,0 +1,33 @@
+package io.guessauthor.jeopardy.data;
+
+import java.util.Locale;
+
+/**
+ * How strongly a participant's message count influences how often they appear as a wrong answer.
+ */
+public enum DistractorWeighting {
+    UNIFORM,
+    PROPORTIONAL,
+    SQRT_PROPORTIONAL;
+
+    double weight(long messageCount) {
+        if (messageCount <= 0) {
+            return 0.0;
+        }
+        return switch (this) {
+            case UNIFORM -> 1.0;
+            case PROPORTIONAL -> messageCount;
+            case SQRT_PROPORTIONAL -> Math.sqrt(messageCount);
+        };
+    }
+
+    public static DistractorWeighting parse(String value) {
+        String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT).replace('-', '_');
+        return switch (normalized) {
+            case "uniform" -> UNIFORM;
+            case "proportional" -> PROPORTIONAL;
+            case "sqrt", "sqrt_proportional" -> SQRT_PROPORTIONAL;
+            default -> throw new IllegalArgumentException("Unknown distractor weighting: " + value);
+        };
+    }
+}
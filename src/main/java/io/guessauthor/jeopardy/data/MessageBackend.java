@@ -0,0 +1,33 @@
+package io.guessauthor.jeopardy.data;
+
+import io.guessauthor.jeopardy.data.MessageRepository.Message;
+import io.guessauthor.jeopardy.data.MessageRepository.MessageContext;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where a {@link MessageRepository} reads a room's messages from: the room's SQLite database or a
+ * {@link RoomSnapshot} written from it. Both answer every lookup identically. Message ids passed in
+ * are never null or blank.
+ */
+public interface MessageBackend extends AutoCloseable {
+
+    /**
+     * The eligible message with its choices already drawn, or empty if the id is not eligible.
+     */
+    Optional<Message> fetchMessageById(String messageId) throws SQLException;
+
+    List<String> fetchEligibleMessageIds() throws SQLException;
+
+    MessageContext fetchContext(String messageId) throws SQLException;
+
+    /**
+     * Rough heap held by this backend; memory-mapped data is not counted.
+     */
+    long estimatedHeapBytes();
+
+    @Override
+    void close();
+}
@@ -1,125 +1,142 @@
 package io.guessauthor.jeopardy.data;
 
 import java.nio.file.Path;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
-public final class MessageRepository {
+public final class MessageRepository implements AutoCloseable {
 
-    private final String jdbcUrl;
+    static final int TOTAL_CHOICES = 4;
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_CONTEXT_WINDOW = 1;
+
+    private static final AtomicLong INSTANCES = new AtomicLong();
+
+    private final long instanceId = INSTANCES.incrementAndGet();
+    private final MessageBackend backend;
 
     public MessageRepository(Path databasePath) {
-        this.jdbcUrl = "jdbc:sqlite:" + databasePath.toAbsolutePath();
+        this(databasePath, DEFAULT_POOL_SIZE, DistractorWeighting.PROPORTIONAL, DEFAULT_CONTEXT_WINDOW);
+    }
+
+    public MessageRepository(
+        Path databasePath,
+        int poolSize,
+        DistractorWeighting weighting,
+        int contextWindow
+    ) {
+        this(databasePath, poolSize, weighting, contextWindow, QueryTracer.disabled(), false);
+    }
+
+    /**
+     * @param compiled whether {@link RoomDatabaseCompiler} has prepared the database, in which case
+     *                 messages and participant counts are read from its derived tables
+     */
+    public MessageRepository(
+        Path databasePath,
+        int poolSize,
+        DistractorWeighting weighting,
+        int contextWindow,
+        QueryTracer tracer,
+        boolean compiled
+    ) {
+        this(new SqliteMessageBackend(databasePath, poolSize, weighting, contextWindow, tracer, compiled));
+    }
+
+    /**
+     * Serves lookups from {@code backend} and closes it along with the repository.
+     */
+    public MessageRepository(MessageBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Loads every eligible message into memory so later lookups are served without SQLite.
+     */
+    public RoomCorpus preloadCorpus() throws SQLException {
+        return sqlite().preloadCorpus();
+    }
+
+    /**
+     * Orders every timestamped message once so context lookups no longer scan the messages table.
+     */
+    public void buildTimelineIndex() throws SQLException {
+        sqlite().buildTimelineIndex();
+    }
+
+    /**
+     * Distinguishes this repository from every other one opened by the process, including later
+     * reloads of the same database. Used to key caches of rendered message data.
+     */
+    public long instanceId() {
+        return instanceId;
+    }
+
+    public PoolStats poolStats() {
+        return sqlite().poolStats();
+    }
+
+    /**
+     * Rough heap held by the backend, such as a preloaded corpus and timeline index.
+     */
+    public long estimatedHeapBytes() {
+        return backend.estimatedHeapBytes();
+    }
+
+    @Override
+    public void close() {
+        backend.close();
+    }
+
+    public Optional<RoomCorpus> corpus() {
+        return backend instanceof SqliteMessageBackend sqlite ? sqlite.corpus() : Optional.empty();
     }
 
     public Optional<Message> fetchMessageById(String messageId) throws SQLException {
         if (messageId == null || messageId.isBlank()) {
             return Optional.empty();
         }
-        String sql = """
-            SELECT
-                m.id,
-                m.content,
-                m.author_id,
-                m.timestamp,
-                COALESCE(NULLIF(TRIM(p.nickname), ''), NULLIF(TRIM(p.name), ''), 'Unknown') AS display_name,
-                CASE
-                    WHEN p.name IS NOT NULL AND p.discriminator IS NOT NULL
-                    THEN p.name || '#' || p.discriminator
-                    ELSE p.name
-                END AS full_name
-            FROM messages m
-            LEFT JOIN participants p ON p.id = m.author_id
-            WHERE m.id = ?
-              AND m.content IS NOT NULL
-              AND TRIM(m.content) <> ''
-              AND (p.is_bot IS NULL OR p.is_bot = 0)
-        """;
-
-        try (Connection connection = DriverManager.getConnection(jdbcUrl);
-             PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, messageId);
-            try (ResultSet result = statement.executeQuery()) {
-                if (result.next()) {
-                    return Optional.of(mapMessage(connection, result));
-                }
-            }
-        }
-        return Optional.empty();
+        return backend.fetchMessageById(messageId);
     }
 
     public List<String> fetchEligibleMessageIds() throws SQLException {
-        String sql = """
-            SELECT m.id
-            FROM messages m
-            LEFT JOIN participants p ON p.id = m.author_id
-            WHERE m.content IS NOT NULL
-              AND TRIM(m.content) <> ''
-              AND (p.is_bot IS NULL OR p.is_bot = 0)
-        """;
-
-        List<String> ids = new ArrayList<>();
-        try (Connection connection = DriverManager.getConnection(jdbcUrl);
-             PreparedStatement statement = connection.prepareStatement(sql);
-             ResultSet result = statement.executeQuery()) {
-            while (result.next()) {
-                String id = result.getString("id");
-                if (id != null && !id.isBlank()) {
-                    ids.add(id);
-                }
-            }
-        }
-        return ids;
+        return backend.fetchEligibleMessageIds();
     }
 
     public MessageContext fetchContext(String messageId) throws SQLException {
         if (messageId == null || messageId.isBlank()) {
-            return new MessageContext(null, null);
-        }
-        try (Connection connection = DriverManager.getConnection(jdbcUrl)) {
-            ContextSnippet before = fetchAdjacentMessage(connection, messageId, true);
-            ContextSnippet after = fetchAdjacentMessage(connection, messageId, false);
-            return new MessageContext(before, after);
+            return MessageContext.empty();
         }
+        return backend.fetchContext(messageId);
     }
 
-    private Message mapMessage(Connection connection, ResultSet result) throws SQLException {
-        String messageId = result.getString("id");
-        String authorId = result.getString("author_id");
-        List<Attachment> attachments = loadAttachments(connection, messageId);
-        List<String> embeds = loadEmbeds(connection, messageId);
-        List<Choice> choices = buildChoices(connection, authorId, 4);
-
-        return new Message(
-            messageId,
-            cleanContent(result.getString("content")),
-            result.getString("timestamp"),
-            result.getString("display_name"),
-            result.getString("full_name"),
-            attachments,
-            embeds,
-            authorId,
-            choices
-        );
+    /**
+     * Draws a question's choices for {@code authorId}; the benchmarks' way in.
+     */
+    List<Choice> buildChoices(String authorId) throws SQLException {
+        return switch (backend) {
+            case SqliteMessageBackend sqlite -> sqlite.buildChoices(authorId);
+            case RoomSnapshot snapshot -> snapshot.buildChoices(authorId);
+            default -> throw new IllegalStateException("Backend cannot draw choices on their own.");
+        };
     }
 
-    private List<Choice> buildChoices(Connection connection, String authorId, int totalChoices) throws SQLException {
-        Choice authorChoice = loadChoiceForParticipant(connection, authorId);
-        List<Choice> choices = new ArrayList<>();
-        if (authorChoice != null) {
-            choices.add(authorChoice);
+    private SqliteMessageBackend sqlite() {
+        if (backend instanceof SqliteMessageBackend sqlite) {
+            return sqlite;
         }
+        throw new IllegalStateException("Repository is not backed by SQLite.");
+    }
 
-        int needed = Math.max(totalChoices - choices.size(), 0);
-        if (needed > 0) {
-            choices.addAll(loadDistractorChoices(connection, authorId, needed * 3));
+    static List<Choice> mergeChoices(Choice authorChoice, List<Choice> distractors, int totalChoices) {
+        List<Choice> choices = new ArrayList<>(distractors.size() + 1);
+        if (authorChoice != null) {
+            choices.add(authorChoice);
         }
+        choices.addAll(distractors);
 
         List<Choice> unique = new ArrayList<>();
         for (Choice choice : choices) {
@@ -147,161 +164,7 @@ public final class MessageRepository {
         return unique;
     }
 
-    private Choice loadChoiceForParticipant(Connection connection, String participantId) throws SQLException {
-        if (participantId == null || participantId.isBlank()) {
-            return null;
-        }
-        String sql = """
-            SELECT
-                id,
-                COALESCE(NULLIF(TRIM(nickname), ''), NULLIF(TRIM(name), ''), 'Unknown') AS display_name,
-                CASE
-                    WHEN name IS NOT NULL AND discriminator IS NOT NULL
-                    THEN name || '#' || discriminator
-                    ELSE name
-                END AS full_name
-            FROM participants
-            WHERE id = ?
-              AND (is_bot IS NULL OR is_bot = 0)
-        """;
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, participantId);
-            try (ResultSet result = statement.executeQuery()) {
-                if (result.next()) {
-                    return new Choice(
-                        participantId,
-                        result.getString("display_name"),
-                        result.getString("full_name")
-                    );
-                }
-            }
-        }
-        return null;
-    }
-
-    private List<Choice> loadDistractorChoices(Connection connection, String authorId, int limit) throws SQLException {
-        String sql = """
-            SELECT
-                p.id,
-                COALESCE(NULLIF(TRIM(p.nickname), ''), NULLIF(TRIM(p.name), ''), 'Unknown') AS display_name,
-                CASE
-                    WHEN p.name IS NOT NULL AND p.discriminator IS NOT NULL
-                    THEN p.name || '#' || p.discriminator
-                    ELSE p.name
-                END AS full_name,
-                COALESCE(stats.message_count, 0) AS message_count
-            FROM participants p
-            LEFT JOIN (
-                SELECT author_id, COUNT(*) AS message_count
-                FROM messages
-                GROUP BY author_id
-            ) stats ON stats.author_id = p.id
-            WHERE p.id != ?
-              AND (p.is_bot IS NULL OR p.is_bot = 0)
-              AND COALESCE(stats.message_count, 0) > 0
-            ORDER BY COALESCE(stats.message_count, 0) DESC, RANDOM()
-            LIMIT ?
-        """;
-        List<Choice> distractors = new ArrayList<>();
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, authorId);
-            statement.setInt(2, Math.max(limit, 0));
-            try (ResultSet result = statement.executeQuery()) {
-                while (result.next()) {
-                    distractors.add(new Choice(
-                        result.getString("id"),
-                        result.getString("display_name"),
-                        result.getString("full_name")
-                    ));
-                }
-            }
-        }
-        return distractors;
-    }
-
-    private List<Attachment> loadAttachments(Connection connection, String messageId) throws SQLException {
-        String sql = """
-            SELECT url, file_name
-            FROM attachments
-            WHERE message_id = ?
-            ORDER BY rowid
-        """;
-        List<Attachment> attachments = new ArrayList<>();
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, messageId);
-            try (ResultSet result = statement.executeQuery()) {
-                while (result.next()) {
-                    attachments.add(new Attachment(
-                        result.getString("url"),
-                        result.getString("file_name")
-                    ));
-                }
-            }
-        }
-        return attachments;
-    }
-
-    private List<String> loadEmbeds(Connection connection, String messageId) throws SQLException {
-        String sql = """
-            SELECT raw_json
-            FROM embeds
-            WHERE message_id = ?
-            ORDER BY id
-        """;
-        List<String> embeds = new ArrayList<>();
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, messageId);
-            try (ResultSet result = statement.executeQuery()) {
-                while (result.next()) {
-                    String raw = result.getString("raw_json");
-                    if (raw != null && !raw.isBlank()) {
-                        embeds.add(raw.trim());
-                    }
-                }
-            }
-        }
-        return embeds;
-    }
-
-    private ContextSnippet fetchAdjacentMessage(
-        Connection connection,
-        String messageId,
-        boolean before
-    ) throws SQLException {
-        String comparator = before ? "<" : ">";
-        String sortDirection = before ? "DESC" : "ASC";
-        String sql = """
-            SELECT
-                m.id,
-                m.content,
-                m.timestamp,
-                COALESCE(NULLIF(TRIM(p.nickname), ''), NULLIF(TRIM(p.name), ''), 'Unknown') AS display_name
-            FROM messages m
-            LEFT JOIN participants p ON p.id = m.author_id
-            WHERE m.timestamp IS NOT NULL
-              AND m.timestamp %s
-                (SELECT timestamp FROM messages WHERE id = ?)
-            ORDER BY m.timestamp %s
-            LIMIT 1
-        """.formatted(comparator, sortDirection);
-
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, messageId);
-            try (ResultSet result = statement.executeQuery()) {
-                if (result.next()) {
-                    return new ContextSnippet(
-                        result.getString("id"),
-                        cleanContent(result.getString("content")),
-                        result.getString("timestamp"),
-                        result.getString("display_name")
-                    );
-                }
-            }
-        }
-        return null;
-    }
-
-    private static String cleanContent(String content) {
+    static String cleanContent(String content) {
         if (content == null) {
             return null;
         }
@@ -327,5 +190,36 @@ public final class MessageRepository {
 
     public record ContextSnippet(String id, String content, String timestamp, String displayName) {}
 
-    public record MessageContext(ContextSnippet before, ContextSnippet after) {}
+    /**
+     * Messages surrounding a question, each list in chronological order.
+     */
+    public record MessageContext(List<ContextSnippet> beforeMessages, List<ContextSnippet> afterMessages) {
+
+        public MessageContext {
+            beforeMessages = beforeMessages == null ? List.of() : List.copyOf(beforeMessages);
+            afterMessages = afterMessages == null ? List.of() : List.copyOf(afterMessages);
+        }
+
+        public static MessageContext empty() {
+            return new MessageContext(List.of(), List.of());
+        }
+
+        public ContextSnippet before() {
+            return beforeMessages.isEmpty() ? null : beforeMessages.get(beforeMessages.size() - 1);
+        }
+
+        public ContextSnippet after() {
+            return afterMessages.isEmpty() ? null : afterMessages.get(0);
+        }
+    }
+
+    public record PoolStats(
+        int maxSize,
+        int openConnections,
+        int idleConnections,
+        long borrows,
+        long waits,
+        long totalWaitNanos,
+        long maxWaitNanos
+    ) {}
 }
@@ -0,0 +1,135 @@
+package io.guessauthor.jeopardy.data;
+
+import io.guessauthor.jeopardy.data.ConnectionPool.PooledConnection;
+import io.guessauthor.jeopardy.util.LatencyHistogram;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times {@link MessageRepository}'s statements per logical query, across all rooms, and logs any
+ * execution slower than the threshold together with SQLite's plan for it. Plans are looked up once
+ * per database and query, so a burst of slow queries does not also become a burst of EXPLAINs.
+ * When disabled, {@link #start()} and {@link #finish} do nothing beyond a field check.
+ */
+public final class QueryTracer {
+
+    private static final QueryTracer DISABLED = new QueryTracer(false, 0);
+
+    private final boolean enabled;
+    private final long slowNanos;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Query.values().length];
+    private final LongAdder[] slow = new LongAdder[Query.values().length];
+    private final ConcurrentHashMap<String, String> plans = new ConcurrentHashMap<>();
+
+    private QueryTracer(boolean enabled, long slowNanos) {
+        this.enabled = enabled;
+        this.slowNanos = slowNanos;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            slow[i] = new LongAdder();
+        }
+    }
+
+    public static QueryTracer disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * @param slowThreshold log queries at least this slow; zero records timings without logging
+     */
+    public static QueryTracer create(Duration slowThreshold) {
+        return new QueryTracer(true, slowThreshold.toNanos());
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records one execution of {@code query} that began at {@code startedNanos}. Call it once the
+     * rows have been read, since SQLite does most of the work while stepping through them.
+     */
+    void finish(Query query, long startedNanos, String sql, PooledConnection connection) {
+        if (!enabled) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startedNanos;
+        latencies[query.ordinal()].record(elapsed);
+        if (slowNanos > 0 && elapsed >= slowNanos) {
+            slow[query.ordinal()].increment();
+            String plan = plans.computeIfAbsent(connection.jdbcUrl() + '\n' + query.label, key -> explain(connection, sql));
+            System.out.printf(Locale.US, "Slow query %s took %.1f ms on %s%n%s",
+                query.label, elapsed / 1_000_000.0, connection.jdbcUrl(), plan);
+        }
+    }
+
+    /**
+     * Appends per-query execution counts, time and slow-query counts in the Prometheus text format.
+     */
+    public void appendTo(StringBuilder out) {
+        if (!enabled) {
+            return;
+        }
+        out.append("# HELP jeopardy_sql_query_duration_seconds Time to execute a repository query and read its rows.\n");
+        out.append("# TYPE jeopardy_sql_query_duration_seconds histogram\n");
+        for (Query query : Query.values()) {
+            latencies[query.ordinal()].appendTo(out, "jeopardy_sql_query_duration_seconds", "query=\"" + query.label + "\"");
+        }
+        out.append("# HELP jeopardy_sql_slow_queries_total Executions at or above the slow-query threshold.\n");
+        out.append("# TYPE jeopardy_sql_slow_queries_total counter\n");
+        for (Query query : Query.values()) {
+            out.append("jeopardy_sql_slow_queries_total{query=\"").append(query.label).append("\"} ")
+                .append(slow[query.ordinal()].sum()).append('\n');
+        }
+    }
+
+    /**
+     * Runs EXPLAIN QUERY PLAN with every parameter left unbound, which SQLite plans the same way,
+     * and renders the rows as an indented tree.
+     */
+    private static String explain(PooledConnection connection, String sql) {
+        StringBuilder plan = new StringBuilder();
+        Map<Integer, Integer> depths = new HashMap<>();
+        try (PreparedStatement statement = connection.connection().prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                int depth = depths.getOrDefault(result.getInt("parent"), 0) + 1;
+                depths.put(result.getInt("id"), depth);
+                plan.append("  ".repeat(depth)).append(result.getString("detail")).append('\n');
+            }
+        } catch (SQLException ex) {
+            plan.append("  EXPLAIN QUERY PLAN failed: ").append(ex.getMessage()).append('\n');
+        }
+        return plan.toString();
+    }
+
+    enum Query {
+        MESSAGE("message"),
+        ATTACHMENTS("attachments"),
+        EMBEDS("embeds"),
+        AUTHOR_CHOICE("author-choice"),
+        // One-time load of the participant weights; distractors are then sampled in memory.
+        DISTRACTOR_STATS("distractor-stats"),
+        ADJACENT_BEFORE("adjacent-before"),
+        ADJACENT_AFTER("adjacent-after"),
+        ELIGIBLE_IDS("eligible-ids");
+
+        private final String label;
+
+        Query(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package io.guessauthor.jeopardy.data;
+
+import io.guessauthor.jeopardy.data.MessageRepository.Attachment;
+import io.guessauthor.jeopardy.data.MessageRepository.Choice;
+import io.guessauthor.jeopardy.data.MessageRepository.Message;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory copy of every eligible message in a room database, together with the
+ * participants, attachments and embeds needed to build a question without touching SQLite.
+ */
+public final class RoomCorpus {
+
+    private static final int STRING_OVERHEAD_BYTES = 48;
+    private static final int REFERENCE_BYTES = 8;
+
+    private final Map<String, Integer> messageIndex;
+    private final List<String> messageIds;
+    private final String[] contents;
+    private final String[] timestamps;
+    private final int[] authorIndexes;
+    private final List<Attachment>[] attachments;
+    private final List<String>[] embeds;
+    private final Choice[] participants;
+    private final long[] participantMessageCounts;
+    private final long loadMillis;
+    private final long estimatedBytes;
+
+    private RoomCorpus(
+        Map<String, Integer> messageIndex,
+        List<String> messageIds,
+        String[] contents,
+        String[] timestamps,
+        int[] authorIndexes,
+        List<Attachment>[] attachments,
+        List<String>[] embeds,
+        Choice[] participants,
+        long[] participantMessageCounts,
+        long loadMillis
+    ) {
+        this.messageIndex = messageIndex;
+        this.messageIds = List.copyOf(messageIds);
+        this.contents = contents;
+        this.timestamps = timestamps;
+        this.authorIndexes = authorIndexes;
+        this.attachments = attachments;
+        this.embeds = embeds;
+        this.participants = participants;
+        this.participantMessageCounts = participantMessageCounts;
+        this.loadMillis = loadMillis;
+        this.estimatedBytes = estimateBytes();
+    }
+
+    static RoomCorpus load(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+
+        List<Choice> participantList = new ArrayList<>();
+        List<Long> countList = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(SqliteMessageBackend.PARTICIPANT_STATS_SQL);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                participantList.add(new Choice(
+                    result.getString("id"),
+                    result.getString("display_name"),
+                    result.getString("full_name")
+                ));
+                countList.add(result.getLong("message_count"));
+            }
+        }
+        Map<String, Integer> participantIndex = new HashMap<>(participantList.size() * 2);
+        for (int i = 0; i < participantList.size(); i++) {
+            participantIndex.put(participantList.get(i).participantId(), i);
+        }
+
+        List<String> ids = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        List<String> timestamps = new ArrayList<>();
+        List<Integer> authors = new ArrayList<>();
+        String messageSql = """
+            SELECT m.id, m.content, m.timestamp, m.author_id
+            FROM messages m
+            LEFT JOIN participants p ON p.id = m.author_id
+            WHERE m.content IS NOT NULL
+              AND TRIM(m.content) <> ''
+              AND (p.is_bot IS NULL OR p.is_bot = 0)
+        """;
+        try (PreparedStatement statement = connection.prepareStatement(messageSql);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                String id = result.getString("id");
+                if (id == null || id.isBlank()) {
+                    continue;
+                }
+                String authorId = result.getString("author_id");
+                Integer author = authorId == null ? null : participantIndex.get(authorId);
+                ids.add(id);
+                contents.add(MessageRepository.cleanContent(result.getString("content")));
+                timestamps.add(result.getString("timestamp"));
+                authors.add(author == null ? -1 : author);
+            }
+        }
+
+        Map<String, Integer> messageIndex = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) {
+            messageIndex.put(ids.get(i), i);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Attachment>[] attachments = new List[ids.size()];
+        String attachmentSql = """
+            SELECT message_id, url, file_name
+            FROM attachments
+            ORDER BY rowid
+        """;
+        try (PreparedStatement statement = connection.prepareStatement(attachmentSql);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                Integer index = messageIndex.get(result.getString("message_id"));
+                if (index == null) {
+                    continue;
+                }
+                if (attachments[index] == null) {
+                    attachments[index] = new ArrayList<>(1);
+                }
+                attachments[index].add(new Attachment(result.getString("url"), result.getString("file_name")));
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<String>[] embeds = new List[ids.size()];
+        String embedSql = """
+            SELECT message_id, raw_json
+            FROM embeds
+            ORDER BY id
+        """;
+        try (PreparedStatement statement = connection.prepareStatement(embedSql);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                Integer index = messageIndex.get(result.getString("message_id"));
+                String raw = result.getString("raw_json");
+                if (index == null || raw == null || raw.isBlank()) {
+                    continue;
+                }
+                if (embeds[index] == null) {
+                    embeds[index] = new ArrayList<>(1);
+                }
+                embeds[index].add(raw.trim());
+            }
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            attachments[i] = attachments[i] == null ? List.of() : List.copyOf(attachments[i]);
+            embeds[i] = embeds[i] == null ? List.of() : List.copyOf(embeds[i]);
+        }
+
+        int[] authorIndexes = new int[authors.size()];
+        for (int i = 0; i < authorIndexes.length; i++) {
+            authorIndexes[i] = authors.get(i);
+        }
+        long[] counts = new long[countList.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = countList.get(i);
+        }
+
+        long loadMillis = (System.nanoTime() - started) / 1_000_000L;
+        return new RoomCorpus(
+            messageIndex,
+            ids,
+            contents.toArray(new String[0]),
+            timestamps.toArray(new String[0]),
+            authorIndexes,
+            attachments,
+            embeds,
+            participantList.toArray(new Choice[0]),
+            counts,
+            loadMillis
+        );
+    }
+
+    public List<String> messageIds() {
+        return messageIds;
+    }
+
+    public int messageCount() {
+        return messageIds.size();
+    }
+
+    public int participantCount() {
+        return participants.length;
+    }
+
+    public long loadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * Rough retained-heap estimate for the corpus arrays, strings and lookup maps.
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    List<Choice> participants() {
+        return Arrays.asList(participants);
+    }
+
+    long[] participantMessageCounts() {
+        return participantMessageCounts;
+    }
+
+    Message message(String messageId, DistractorSampler sampler, int totalChoices) {
+        Integer index = messageIndex.get(messageId);
+        if (index == null) {
+            return null;
+        }
+        int author = authorIndexes[index];
+        Choice authorChoice = author >= 0 ? participants[author] : null;
+        String authorId = authorChoice == null ? null : authorChoice.participantId();
+        List<Choice> distractors = authorChoice == null
+            ? List.of()
+            : sampler.sample(authorId, totalChoices - 1);
+
+        return new Message(
+            messageId,
+            contents[index],
+            timestamps[index],
+            authorChoice == null ? "Unknown" : authorChoice.displayName(),
+            authorChoice == null ? null : authorChoice.fullName(),
+            attachments[index],
+            embeds[index],
+            authorId,
+            MessageRepository.mergeChoices(authorChoice, distractors, totalChoices)
+        );
+    }
+
+    private long estimateBytes() {
+        long total = 0;
+        int messages = messageIds.size();
+        for (int i = 0; i < messages; i++) {
+            total += estimateString(messageIds.get(i));
+            total += estimateString(contents[i]);
+            total += estimateString(timestamps[i]);
+            for (Attachment attachment : attachments[i]) {
+                total += 32 + estimateString(attachment.url()) + estimateString(attachment.fileName());
+            }
+            for (String embed : embeds[i]) {
+                total += REFERENCE_BYTES + estimateString(embed);
+            }
+        }
+        // Parallel arrays plus one boxed hash map entry per message.
+        total += (long) messages * (4L * REFERENCE_BYTES + Integer.BYTES + 48);
+        for (Choice participant : participants) {
+            total += 32 + estimateString(participant.participantId())
+                + estimateString(participant.displayName())
+                + estimateString(participant.fullName())
+                + Long.BYTES + Integer.BYTES + 48;
+        }
+        return total;
+    }
+
+    private static long estimateString(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + (long) value.length() * 2;
+    }
+}
@@ -0,0 +1,168 @@
+package io.guessauthor.jeopardy.data;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Prepares a stored room database for serving. Uploaded exports have no secondary indexes, so this
+ * adds the ones {@link MessageRepository} looks up by, materializes the eligible messages (with
+ * cleaned content and author names already joined) and per-participant message counts, and runs
+ * {@code ANALYZE}. Everything happens in one transaction, and the result is stamped with
+ * {@link #SCHEMA_VERSION} in {@code user_version} so a restart does not compile again.
+ */
+public final class RoomDatabaseCompiler {
+
+    static final int SCHEMA_VERSION = 1;
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String[] INDEXES = {
+        "CREATE INDEX IF NOT EXISTS idx_attachments_message_id ON attachments (message_id)",
+        "CREATE INDEX IF NOT EXISTS idx_embeds_message_id ON embeds (message_id)",
+        "CREATE INDEX IF NOT EXISTS idx_messages_author_id ON messages (author_id)",
+        "CREATE INDEX IF NOT EXISTS idx_messages_timestamp ON messages (timestamp)"
+    };
+    private static final String ELIGIBLE_SOURCE_SQL = """
+            SELECT
+                m.id,
+                m.author_id,
+                m.timestamp,
+                m.content,
+                COALESCE(NULLIF(TRIM(p.nickname), ''), NULLIF(TRIM(p.name), ''), 'Unknown') AS display_name,
+                CASE
+                    WHEN p.name IS NOT NULL AND p.discriminator IS NOT NULL
+                    THEN p.name || '#' || p.discriminator
+                    ELSE p.name
+                END AS full_name
+            FROM messages m
+            LEFT JOIN participants p ON p.id = m.author_id
+            WHERE m.id IS NOT NULL
+              AND TRIM(m.id) <> ''
+              AND m.content IS NOT NULL
+              AND TRIM(m.content) <> ''
+              AND (p.is_bot IS NULL OR p.is_bot = 0)
+            ORDER BY m.rowid
+        """;
+
+    private RoomDatabaseCompiler() {
+    }
+
+    /**
+     * Compiles the database at {@code databasePath} unless it already is.
+     *
+     * @return {@code true} if it was compiled now, {@code false} if it already was
+     */
+    public static boolean compile(Path databasePath) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath.toAbsolutePath())) {
+            if (isCompiled(connection)) {
+                return false;
+            }
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String index : INDEXES) {
+                    statement.executeUpdate(index);
+                }
+                statement.executeUpdate("DROP TABLE IF EXISTS eligible_messages");
+                statement.executeUpdate("""
+                    CREATE TABLE eligible_messages (
+                        row_key INTEGER PRIMARY KEY,
+                        message_id TEXT NOT NULL UNIQUE,
+                        author_id TEXT,
+                        timestamp TEXT,
+                        content TEXT NOT NULL,
+                        display_name TEXT,
+                        full_name TEXT
+                    )""");
+                copyEligibleMessages(connection);
+
+                statement.executeUpdate("DROP TABLE IF EXISTS participant_stats");
+                statement.executeUpdate("""
+                    CREATE TABLE participant_stats (
+                        id TEXT PRIMARY KEY,
+                        display_name TEXT,
+                        full_name TEXT,
+                        message_count INTEGER NOT NULL
+                    )""");
+                statement.executeUpdate("INSERT INTO participant_stats (id, display_name, full_name, message_count) "
+                    + SqliteMessageBackend.PARTICIPANT_STATS_SQL);
+
+                statement.executeUpdate("ANALYZE");
+                // The bundled SQLite has STAT4, and with its samples present every prepared lookup is
+                // re-planned for each new binding, which made single-row queries 2-3x slower. The
+                // row counts in sqlite_stat1 are all these plans need.
+                if (hasTable(connection, "sqlite_stat4")) {
+                    statement.executeUpdate("DELETE FROM sqlite_stat4");
+                }
+                statement.executeUpdate("PRAGMA user_version = " + SCHEMA_VERSION);
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Checks the version stamp and the derived tables, so an upload that happens to carry the same
+     * {@code user_version} is still compiled.
+     */
+    static boolean isCompiled(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet result = statement.executeQuery("PRAGMA user_version")) {
+                if (!result.next() || result.getInt(1) != SCHEMA_VERSION) {
+                    return false;
+                }
+            }
+            try (ResultSet result = statement.executeQuery("""
+                SELECT COUNT(*) FROM sqlite_master
+                WHERE type = 'table' AND name IN ('eligible_messages', 'participant_stats')""")) {
+                return result.next() && result.getInt(1) == 2;
+            }
+        }
+    }
+
+    private static boolean hasTable(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                 "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            statement.setString(1, name);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next();
+            }
+        }
+    }
+
+    /**
+     * Content is cleaned here rather than in SQL, since it collapses whitespace runs with the same
+     * regex the repository uses for uncompiled databases.
+     */
+    private static void copyEligibleMessages(Connection connection) throws SQLException {
+        try (PreparedStatement source = connection.prepareStatement(ELIGIBLE_SOURCE_SQL);
+             ResultSet rows = source.executeQuery();
+             PreparedStatement insert = connection.prepareStatement("""
+                 INSERT INTO eligible_messages (message_id, author_id, timestamp, content, display_name, full_name)
+                 VALUES (?, ?, ?, ?, ?, ?)""")) {
+            int pending = 0;
+            while (rows.next()) {
+                insert.setString(1, rows.getString("id"));
+                insert.setString(2, rows.getString("author_id"));
+                insert.setString(3, rows.getString("timestamp"));
+                insert.setString(4, MessageRepository.cleanContent(rows.getString("content")));
+                insert.setString(5, rows.getString("display_name"));
+                insert.setString(6, rows.getString("full_name"));
+                insert.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    insert.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+}
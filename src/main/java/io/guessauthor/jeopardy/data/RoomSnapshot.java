@@ -0,0 +1,315 @@
+package io.guessauthor.jeopardy.data;
+
+import io.guessauthor.jeopardy.data.MessageRepository.Attachment;
+import io.guessauthor.jeopardy.data.MessageRepository.Choice;
+import io.guessauthor.jeopardy.data.MessageRepository.ContextSnippet;
+import io.guessauthor.jeopardy.data.MessageRepository.Message;
+import io.guessauthor.jeopardy.data.MessageRepository.MessageContext;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only, memory-mapped copy of a compiled room database written by {@link RoomSnapshotWriter}.
+ * Lookups read the mapping directly: a binary search over the id index, then fixed offsets into
+ * the record. Only the participant table is decoded onto the heap, so the only allocations per
+ * question are the strings and lists that make up the response.
+ *
+ * <p>The file is big-endian with {@code int} offsets from the start of the file:
+ * <pre>
+ * header        magic, version, recordCount, eligibleCount, timelineCount, participantCount,
+ *               recordTableOffset, idIndexOffset, timelineOffset, fileLength
+ * participants  per participant: id, displayName, fullName, long messageCount, byte isBot
+ * bodies        per record: id, content, timestamp, authorId; eligible records then add an int
+ *               count of (url, fileName) attachments and an int count of embed JSON strings
+ * record table  per record: bodyOffset, participant index or -1, timeline position or -1
+ * id index      record numbers sorted by the unsigned UTF-8 bytes of their ids
+ * timeline      record numbers in timeline order
+ * </pre>
+ * Strings are an {@code int} byte length, {@code -1} for null, followed by UTF-8. Eligible messages
+ * are records {@code 0} to {@code eligibleCount - 1}, in the compiled database's order; the rest are
+ * messages that only appear as context.
+ */
+public final class RoomSnapshot implements MessageBackend {
+
+    static final int MAGIC = 0x47544D53;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 40;
+    static final int RECORD_BYTES = 12;
+
+    private final MappedByteBuffer buffer;
+    private final int recordCount;
+    private final int eligibleCount;
+    private final int timelineCount;
+    private final int recordTable;
+    private final int idIndex;
+    private final int timelineTable;
+    private final int contextWindow;
+    private final String[] displayNames;
+    private final String[] fullNames;
+    private final Choice[] authorChoices;
+    private final Map<String, Integer> participantIndex;
+    private final DistractorSampler sampler;
+    private final long estimatedBytes;
+
+    private RoomSnapshot(MappedByteBuffer buffer, DistractorWeighting weighting, int contextWindow) {
+        this.buffer = buffer;
+        this.recordCount = buffer.getInt(8);
+        this.eligibleCount = buffer.getInt(12);
+        this.timelineCount = buffer.getInt(16);
+        int participantCount = buffer.getInt(20);
+        this.recordTable = buffer.getInt(24);
+        this.idIndex = buffer.getInt(28);
+        this.timelineTable = buffer.getInt(32);
+        this.contextWindow = Math.max(contextWindow, 1);
+
+        displayNames = new String[participantCount];
+        fullNames = new String[participantCount];
+        authorChoices = new Choice[participantCount];
+        participantIndex = new HashMap<>(participantCount * 2);
+        List<Choice> active = new ArrayList<>(participantCount);
+        List<Long> counts = new ArrayList<>(participantCount);
+        long bytes = 0;
+        int offset = HEADER_BYTES;
+        for (int i = 0; i < participantCount; i++) {
+            String id = readString(offset);
+            offset = skipString(offset);
+            displayNames[i] = readString(offset);
+            offset = skipString(offset);
+            fullNames[i] = readString(offset);
+            offset = skipString(offset);
+            long messageCount = buffer.getLong(offset);
+            boolean bot = buffer.get(offset + Long.BYTES) != 0;
+            offset += Long.BYTES + 1;
+
+            participantIndex.putIfAbsent(id, i);
+            if (!bot) {
+                authorChoices[i] = new Choice(id, displayNames[i], fullNames[i]);
+                if (messageCount > 0) {
+                    active.add(authorChoices[i]);
+                    counts.add(messageCount);
+                }
+            }
+            bytes += estimateString(id) + estimateString(displayNames[i]) + estimateString(fullNames[i]) + 32 + 48 + 16;
+        }
+        long[] countArray = new long[counts.size()];
+        for (int i = 0; i < countArray.length; i++) {
+            countArray[i] = counts.get(i);
+        }
+        this.sampler = DistractorSampler.build(active, countArray, weighting);
+        this.estimatedBytes = bytes;
+    }
+
+    /**
+     * Maps a snapshot file. The mapping outlives the channel and is released once the snapshot
+     * is no longer reachable.
+     */
+    public static RoomSnapshot open(Path path, DistractorWeighting weighting, int contextWindow) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a room snapshot: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(36) != size) {
+                throw new IOException("Not a room snapshot or an unsupported version: " + path);
+            }
+            return new RoomSnapshot(buffer, weighting, contextWindow);
+        }
+    }
+
+    public int messageCount() {
+        return eligibleCount;
+    }
+
+    public int participantCount() {
+        return displayNames.length;
+    }
+
+    public long mappedBytes() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public Optional<Message> fetchMessageById(String messageId) {
+        int record = find(messageId);
+        if (record < 0 || record >= eligibleCount) {
+            return Optional.empty();
+        }
+        int entry = recordTable + record * RECORD_BYTES;
+        int participant = buffer.getInt(entry + 4);
+        int offset = skipString(buffer.getInt(entry));
+        String content = readString(offset);
+        offset = skipString(offset);
+        String timestamp = readString(offset);
+        offset = skipString(offset);
+        String authorId = readString(offset);
+        offset = skipString(offset);
+
+        int attachmentCount = buffer.getInt(offset);
+        offset += Integer.BYTES;
+        List<Attachment> attachments = new ArrayList<>(attachmentCount);
+        for (int i = 0; i < attachmentCount; i++) {
+            String url = readString(offset);
+            offset = skipString(offset);
+            attachments.add(new Attachment(url, readString(offset)));
+            offset = skipString(offset);
+        }
+        int embedCount = buffer.getInt(offset);
+        offset += Integer.BYTES;
+        List<String> embeds = new ArrayList<>(embedCount);
+        for (int i = 0; i < embedCount; i++) {
+            embeds.add(readString(offset));
+            offset = skipString(offset);
+        }
+
+        return Optional.of(new Message(
+            messageId,
+            content,
+            timestamp,
+            participant >= 0 ? displayNames[participant] : "Unknown",
+            participant >= 0 ? fullNames[participant] : null,
+            attachments,
+            embeds,
+            authorId,
+            choices(participant >= 0 ? authorChoices[participant] : null, authorId)
+        ));
+    }
+
+    @Override
+    public List<String> fetchEligibleMessageIds() {
+        List<String> ids = new ArrayList<>(eligibleCount);
+        for (int record = 0; record < eligibleCount; record++) {
+            ids.add(readString(buffer.getInt(recordTable + record * RECORD_BYTES)));
+        }
+        return ids;
+    }
+
+    @Override
+    public MessageContext fetchContext(String messageId) {
+        int record = find(messageId);
+        int position = record < 0 ? -1 : buffer.getInt(recordTable + record * RECORD_BYTES + 8);
+        if (position < 0) {
+            return MessageContext.empty();
+        }
+        int from = Math.max(0, position - contextWindow);
+        int to = Math.min(timelineCount, position + 1 + contextWindow);
+        List<ContextSnippet> before = new ArrayList<>(position - from);
+        for (int i = from; i < position; i++) {
+            before.add(snippet(buffer.getInt(timelineTable + i * Integer.BYTES)));
+        }
+        List<ContextSnippet> after = new ArrayList<>(to - position - 1);
+        for (int i = position + 1; i < to; i++) {
+            after.add(snippet(buffer.getInt(timelineTable + i * Integer.BYTES)));
+        }
+        return new MessageContext(before, after);
+    }
+
+    List<Choice> buildChoices(String authorId) {
+        Integer participant = authorId == null ? null : participantIndex.get(authorId);
+        return choices(participant == null ? null : authorChoices[participant], authorId);
+    }
+
+    private List<Choice> choices(Choice authorChoice, String authorId) {
+        int needed = MessageRepository.TOTAL_CHOICES - (authorChoice == null ? 0 : 1);
+        return MessageRepository.mergeChoices(authorChoice, sampler.sample(authorId, needed), MessageRepository.TOTAL_CHOICES);
+    }
+
+    private ContextSnippet snippet(int record) {
+        int entry = recordTable + record * RECORD_BYTES;
+        int participant = buffer.getInt(entry + 4);
+        int offset = buffer.getInt(entry);
+        String id = readString(offset);
+        offset = skipString(offset);
+        String content = readString(offset);
+        offset = skipString(offset);
+        return new ContextSnippet(
+            id,
+            content,
+            readString(offset),
+            participant >= 0 ? displayNames[participant] : "Unknown"
+        );
+    }
+
+    /**
+     * Binary search of the id index. Snowflake ids are ASCII, so they are compared char by char
+     * against the mapped bytes without being encoded first.
+     */
+    private int find(String messageId) {
+        byte[] encoded = isAscii(messageId) ? null : messageId.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int record = buffer.getInt(idIndex + middle * Integer.BYTES);
+            int comparison = compareId(buffer.getInt(recordTable + record * RECORD_BYTES), messageId, encoded);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    private int compareId(int offset, String key, byte[] encoded) {
+        int length = buffer.getInt(offset);
+        int keyLength = encoded == null ? key.length() : encoded.length;
+        int shared = Math.min(length, keyLength);
+        for (int i = 0; i < shared; i++) {
+            int stored = buffer.get(offset + Integer.BYTES + i) & 0xFF;
+            int wanted = encoded == null ? key.charAt(i) : encoded[i] & 0xFF;
+            if (stored != wanted) {
+                return Integer.compare(stored, wanted);
+            }
+        }
+        return Integer.compare(length, keyLength);
+    }
+
+    private String readString(int offset) {
+        int length = buffer.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int skipString(int offset) {
+        return offset + Integer.BYTES + Math.max(buffer.getInt(offset), 0);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long estimateString(String value) {
+        return value == null ? 0 : 48 + (long) value.length() * 2;
+    }
+}
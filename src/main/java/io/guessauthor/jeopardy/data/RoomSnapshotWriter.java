@@ -0,0 +1,294 @@
+package io.guessauthor.jeopardy.data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the {@link RoomSnapshot} of a database compiled by {@link RoomDatabaseCompiler}. Message
+ * bodies are streamed to disk as they are read; only ids, offsets and attachment and embed rows are
+ * held while writing.
+ */
+public final class RoomSnapshotWriter {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final String PARTICIPANTS_SQL = """
+            SELECT
+                p.id,
+                COALESCE(NULLIF(TRIM(p.nickname), ''), NULLIF(TRIM(p.name), ''), 'Unknown') AS display_name,
+                CASE
+                    WHEN p.name IS NOT NULL AND p.discriminator IS NOT NULL
+                    THEN p.name || '#' || p.discriminator
+                    ELSE p.name
+                END AS full_name,
+                COALESCE(s.message_count, 0) AS message_count,
+                COALESCE(p.is_bot, 0) AS is_bot
+            FROM participants p
+            LEFT JOIN participant_stats s ON s.id = p.id
+            WHERE p.id IS NOT NULL
+            ORDER BY p.rowid
+        """;
+
+    private RoomSnapshotWriter() {
+    }
+
+    /**
+     * Writes the snapshot of the compiled database at {@code databasePath} to {@code snapshotPath},
+     * replacing any existing file atomically.
+     */
+    public static void write(Path databasePath, Path snapshotPath) throws IOException, SQLException {
+        Path target = snapshotPath.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), "snapshot-", ".part");
+        try {
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath.toAbsolutePath())) {
+                if (!RoomDatabaseCompiler.isCompiled(connection)) {
+                    throw new SQLException("Database is not compiled: " + databasePath);
+                }
+                write(connection, temp);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void write(Connection connection, Path file) throws IOException, SQLException {
+        TimelineIndex timeline = TimelineIndex.load(connection);
+        Map<String, List<String>> attachments = loadGrouped(connection, """
+            SELECT message_id, url, file_name
+            FROM attachments
+            ORDER BY rowid
+        """, 2);
+        Map<String, List<String>> embeds = loadGrouped(connection, """
+            SELECT message_id, raw_json
+            FROM embeds
+            ORDER BY id
+        """, 1);
+
+        Records records = new Records();
+        Map<String, Integer> participants = new HashMap<>();
+        int eligibleCount;
+        int recordTable;
+        int idIndex;
+        int timelineTable;
+        int fileLength;
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(file), BUFFER_BYTES))) {
+            out.write(new byte[RoomSnapshot.HEADER_BYTES]);
+
+            try (PreparedStatement statement = connection.prepareStatement(PARTICIPANTS_SQL);
+                 ResultSet result = statement.executeQuery()) {
+                int index = 0;
+                while (result.next()) {
+                    String id = result.getString("id");
+                    participants.putIfAbsent(id, index++);
+                    writeString(out, id);
+                    writeString(out, result.getString("display_name"));
+                    writeString(out, result.getString("full_name"));
+                    out.writeLong(result.getLong("message_count"));
+                    out.writeBoolean(result.getInt("is_bot") != 0);
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("""
+                     SELECT message_id, author_id, timestamp, content
+                     FROM eligible_messages
+                     ORDER BY row_key""");
+                 ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    String id = result.getString("message_id");
+                    String authorId = result.getString("author_id");
+                    records.add(id, out.size(), participantOf(participants, authorId));
+                    writeString(out, id);
+                    writeString(out, result.getString("content"));
+                    writeString(out, result.getString("timestamp"));
+                    writeString(out, authorId);
+                    List<String> messageAttachments = attachments.getOrDefault(id, List.of());
+                    out.writeInt(messageAttachments.size() / 2);
+                    for (String value : messageAttachments) {
+                        writeString(out, value);
+                    }
+                    List<String> messageEmbeds = embeds.getOrDefault(id, List.of());
+                    out.writeInt(messageEmbeds.size());
+                    for (String embed : messageEmbeds) {
+                        writeString(out, embed);
+                    }
+                }
+            }
+            eligibleCount = records.size;
+
+            // Messages that are never asked about but can appear as context.
+            try (PreparedStatement statement = connection.prepareStatement("""
+                     SELECT id, content, timestamp, author_id
+                     FROM messages
+                     WHERE timestamp IS NOT NULL
+                       AND id IS NOT NULL
+                     ORDER BY rowid""");
+                 ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    String id = result.getString("id");
+                    if (records.contains(id)) {
+                        continue;
+                    }
+                    String authorId = result.getString("author_id");
+                    records.add(id, out.size(), participantOf(participants, authorId));
+                    writeString(out, id);
+                    writeString(out, MessageRepository.cleanContent(result.getString("content")));
+                    writeString(out, result.getString("timestamp"));
+                    writeString(out, authorId);
+                }
+            }
+
+            recordTable = out.size();
+            for (int record = 0; record < records.size; record++) {
+                out.writeInt(records.bodies[record]);
+                out.writeInt(records.participants[record]);
+                out.writeInt(timeline.positionOf(records.ids[record]));
+            }
+
+            idIndex = out.size();
+            for (int record : records.sortedById()) {
+                out.writeInt(record);
+            }
+
+            timelineTable = out.size();
+            for (int position = 0; position < timeline.size(); position++) {
+                out.writeInt(records.indexOf(timeline.idAt(position)));
+            }
+
+            fileLength = out.size();
+            if (fileLength == Integer.MAX_VALUE) {
+                throw new IOException("Room is too large for a snapshot.");
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(RoomSnapshot.HEADER_BYTES);
+        header.putInt(RoomSnapshot.MAGIC)
+            .putInt(RoomSnapshot.VERSION)
+            .putInt(records.size)
+            .putInt(eligibleCount)
+            .putInt(timeline.size())
+            .putInt(participants.size())
+            .putInt(recordTable)
+            .putInt(idIndex)
+            .putInt(timelineTable)
+            .putInt(fileLength)
+            .flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Groups the remaining {@code columns} of each row by the message id in the first column,
+     * flattened. Blank values in single-column groups, i.e. empty embeds, are dropped.
+     */
+    private static Map<String, List<String>> loadGrouped(Connection connection, String sql, int columns) throws SQLException {
+        Map<String, List<String>> grouped = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                String messageId = result.getString(1);
+                if (messageId == null) {
+                    continue;
+                }
+                if (columns == 1) {
+                    String raw = result.getString(2);
+                    if (raw == null || raw.isBlank()) {
+                        continue;
+                    }
+                    grouped.computeIfAbsent(messageId, key -> new ArrayList<>(1)).add(raw.trim());
+                } else {
+                    List<String> values = grouped.computeIfAbsent(messageId, key -> new ArrayList<>(columns));
+                    for (int column = 2; column <= columns + 1; column++) {
+                        values.add(result.getString(column));
+                    }
+                }
+            }
+        }
+        return grouped;
+    }
+
+    private static int participantOf(Map<String, Integer> participants, String authorId) {
+        Integer index = authorId == null ? null : participants.get(authorId);
+        return index == null ? -1 : index;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Ids and table columns of the records written so far, in record order.
+     */
+    private static final class Records {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private String[] ids = new String[1_024];
+        private int[] bodies = new int[1_024];
+        private int[] participants = new int[1_024];
+        private int size;
+
+        void add(String id, int body, int participant) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                bodies = Arrays.copyOf(bodies, size * 2);
+                participants = Arrays.copyOf(participants, size * 2);
+            }
+            indexes.put(id, size);
+            ids[size] = id;
+            bodies[size] = body;
+            participants[size] = participant;
+            size++;
+        }
+
+        boolean contains(String id) {
+            return indexes.containsKey(id);
+        }
+
+        int indexOf(String id) {
+            return indexes.get(id);
+        }
+
+        int[] sortedById() {
+            byte[][] keys = new byte[size][];
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ids[i].getBytes(StandardCharsets.UTF_8);
+                order[i] = i;
+            }
+            Arrays.sort(order, (left, right) -> Arrays.compareUnsigned(keys[left], keys[right]));
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = order[i];
+            }
+            return sorted;
+        }
+    }
+}
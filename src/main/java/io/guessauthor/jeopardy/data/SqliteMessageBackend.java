@@ -0,0 +1,410 @@
+package io.guessauthor.jeopardy.data;
+
+import io.guessauthor.jeopardy.data.ConnectionPool.PooledConnection;
+import io.guessauthor.jeopardy.data.MessageRepository.Attachment;
+import io.guessauthor.jeopardy.data.MessageRepository.Choice;
+import io.guessauthor.jeopardy.data.MessageRepository.ContextSnippet;
+import io.guessauthor.jeopardy.data.MessageRepository.Message;
+import io.guessauthor.jeopardy.data.MessageRepository.MessageContext;
+import io.guessauthor.jeopardy.data.MessageRepository.PoolStats;
+import io.guessauthor.jeopardy.data.QueryTracer.Query;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads a room straight from its SQLite database through a connection pool, optionally serving
+ * messages from a preloaded {@link RoomCorpus} and context from a {@link TimelineIndex}.
+ */
+final class SqliteMessageBackend implements MessageBackend {
+
+    static final String PARTICIPANT_STATS_SQL = """
+            SELECT
+                p.id,
+                COALESCE(NULLIF(TRIM(p.nickname), ''), NULLIF(TRIM(p.name), ''), 'Unknown') AS display_name,
+                CASE
+                    WHEN p.name IS NOT NULL AND p.discriminator IS NOT NULL
+                    THEN p.name || '#' || p.discriminator
+                    ELSE p.name
+                END AS full_name,
+                COALESCE(stats.message_count, 0) AS message_count
+            FROM participants p
+            LEFT JOIN (
+                SELECT author_id, COUNT(*) AS message_count
+                FROM messages
+                GROUP BY author_id
+            ) stats ON stats.author_id = p.id
+            WHERE (p.is_bot IS NULL OR p.is_bot = 0)
+              AND COALESCE(stats.message_count, 0) > 0
+        """;
+    private static final String COMPILED_PARTICIPANT_STATS_SQL = """
+            SELECT id, display_name, full_name, message_count
+            FROM participant_stats
+        """;
+    private static final String SNIPPET_SQL = """
+            SELECT
+                m.id,
+                m.content,
+                m.timestamp,
+                COALESCE(NULLIF(TRIM(p.nickname), ''), NULLIF(TRIM(p.name), ''), 'Unknown') AS display_name
+            FROM messages m
+            LEFT JOIN participants p ON p.id = m.author_id
+            WHERE m.id = ?
+        """;
+
+    private final ConnectionPool pool;
+    private final DistractorWeighting weighting;
+    private final int contextWindow;
+    private final QueryTracer tracer;
+    private final boolean compiled;
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private volatile RoomCorpus corpus;
+    private volatile DistractorSampler sampler;
+    private volatile TimelineIndex timeline;
+
+    SqliteMessageBackend(
+        Path databasePath,
+        int poolSize,
+        DistractorWeighting weighting,
+        int contextWindow,
+        QueryTracer tracer,
+        boolean compiled
+    ) {
+        this.pool = new ConnectionPool("jdbc:sqlite:" + databasePath.toAbsolutePath(), poolSize);
+        this.weighting = weighting;
+        this.contextWindow = Math.max(contextWindow, 1);
+        this.tracer = tracer;
+        this.compiled = compiled;
+    }
+
+    RoomCorpus preloadCorpus() throws SQLException {
+        return pool.withConnection(connection -> {
+            RoomCorpus loaded = RoomCorpus.load(connection.connection());
+            sampler = DistractorSampler.build(loaded.participants(), loaded.participantMessageCounts(), weighting);
+            corpus = loaded;
+            return loaded;
+        });
+    }
+
+    void buildTimelineIndex() throws SQLException {
+        pool.withConnection(this::timelineIndex);
+    }
+
+    PoolStats poolStats() {
+        return pool.stats();
+    }
+
+    Optional<RoomCorpus> corpus() {
+        return Optional.ofNullable(corpus);
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        RoomCorpus loadedCorpus = corpus;
+        TimelineIndex loadedTimeline = timeline;
+        return (loadedCorpus == null ? 0 : loadedCorpus.estimatedBytes())
+            + (loadedTimeline == null ? 0 : loadedTimeline.estimatedBytes());
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    @Override
+    public Optional<Message> fetchMessageById(String messageId) throws SQLException {
+        RoomCorpus loaded = corpus;
+        if (loaded != null) {
+            return Optional.ofNullable(loaded.message(messageId, sampler, MessageRepository.TOTAL_CHOICES));
+        }
+        String sql = compiled ? """
+            SELECT
+                message_id AS id,
+                content,
+                author_id,
+                timestamp,
+                display_name,
+                full_name
+            FROM eligible_messages
+            WHERE message_id = ?
+        """ : """
+            SELECT
+                m.id,
+                m.content,
+                m.author_id,
+                m.timestamp,
+                COALESCE(NULLIF(TRIM(p.nickname), ''), NULLIF(TRIM(p.name), ''), 'Unknown') AS display_name,
+                CASE
+                    WHEN p.name IS NOT NULL AND p.discriminator IS NOT NULL
+                    THEN p.name || '#' || p.discriminator
+                    ELSE p.name
+                END AS full_name
+            FROM messages m
+            LEFT JOIN participants p ON p.id = m.author_id
+            WHERE m.id = ?
+              AND m.content IS NOT NULL
+              AND TRIM(m.content) <> ''
+              AND (p.is_bot IS NULL OR p.is_bot = 0)
+        """;
+
+        return pool.withConnection(connection -> {
+            PreparedStatement statement = connection.prepare(sql);
+            statement.setString(1, messageId);
+            long started = tracer.start();
+            try (ResultSet result = statement.executeQuery()) {
+                boolean found = result.next();
+                tracer.finish(Query.MESSAGE, started, sql, connection);
+                return found ? Optional.of(mapMessage(connection, result)) : Optional.<Message>empty();
+            }
+        });
+    }
+
+    @Override
+    public List<String> fetchEligibleMessageIds() throws SQLException {
+        RoomCorpus loaded = corpus;
+        if (loaded != null) {
+            return loaded.messageIds();
+        }
+        String sql = compiled ? """
+            SELECT message_id AS id
+            FROM eligible_messages
+            ORDER BY row_key
+        """ : """
+            SELECT m.id
+            FROM messages m
+            LEFT JOIN participants p ON p.id = m.author_id
+            WHERE m.content IS NOT NULL
+              AND TRIM(m.content) <> ''
+              AND (p.is_bot IS NULL OR p.is_bot = 0)
+        """;
+
+        return pool.withConnection(connection -> {
+            List<String> ids = new ArrayList<>();
+            long started = tracer.start();
+            try (ResultSet result = connection.prepare(sql).executeQuery()) {
+                while (result.next()) {
+                    String id = result.getString("id");
+                    if (id != null && !id.isBlank()) {
+                        ids.add(id);
+                    }
+                }
+            }
+            tracer.finish(Query.ELIGIBLE_IDS, started, sql, connection);
+            return ids;
+        });
+    }
+
+    @Override
+    public MessageContext fetchContext(String messageId) throws SQLException {
+        return pool.withConnection(connection -> {
+            TimelineIndex index = timelineIndex(connection);
+            List<ContextSnippet> before = loadSnippets(connection, index.before(messageId, contextWindow), Query.ADJACENT_BEFORE);
+            List<ContextSnippet> after = loadSnippets(connection, index.after(messageId, contextWindow), Query.ADJACENT_AFTER);
+            return new MessageContext(before, after);
+        });
+    }
+
+    List<Choice> buildChoices(String authorId) throws SQLException {
+        return pool.withConnection(connection -> buildChoices(connection, authorId, MessageRepository.TOTAL_CHOICES));
+    }
+
+    private Message mapMessage(PooledConnection connection, ResultSet result) throws SQLException {
+        String messageId = result.getString("id");
+        String authorId = result.getString("author_id");
+        List<Attachment> attachments = loadAttachments(connection, messageId);
+        List<String> embeds = loadEmbeds(connection, messageId);
+        List<Choice> choices = buildChoices(connection, authorId, MessageRepository.TOTAL_CHOICES);
+        String content = result.getString("content");
+
+        return new Message(
+            messageId,
+            compiled ? content : MessageRepository.cleanContent(content),
+            result.getString("timestamp"),
+            result.getString("display_name"),
+            result.getString("full_name"),
+            attachments,
+            embeds,
+            authorId,
+            choices
+        );
+    }
+
+    private List<Choice> buildChoices(PooledConnection connection, String authorId, int totalChoices) throws SQLException {
+        DistractorSampler distractors = distractorSampler(connection);
+        Choice authorChoice = distractors.choice(authorId);
+        if (authorChoice == null) {
+            authorChoice = loadChoiceForParticipant(connection, authorId);
+        }
+        int needed = Math.max(totalChoices - (authorChoice == null ? 0 : 1), 0);
+        return MessageRepository.mergeChoices(authorChoice, distractors.sample(authorId, needed), totalChoices);
+    }
+
+    private Choice loadChoiceForParticipant(PooledConnection connection, String participantId) throws SQLException {
+        if (participantId == null || participantId.isBlank()) {
+            return null;
+        }
+        String sql = """
+            SELECT
+                id,
+                COALESCE(NULLIF(TRIM(nickname), ''), NULLIF(TRIM(name), ''), 'Unknown') AS display_name,
+                CASE
+                    WHEN name IS NOT NULL AND discriminator IS NOT NULL
+                    THEN name || '#' || discriminator
+                    ELSE name
+                END AS full_name
+            FROM participants
+            WHERE id = ?
+              AND (is_bot IS NULL OR is_bot = 0)
+        """;
+        PreparedStatement statement = connection.prepare(sql);
+        statement.setString(1, participantId);
+        long started = tracer.start();
+        try (ResultSet result = statement.executeQuery()) {
+            Choice choice = null;
+            if (result.next()) {
+                choice = new Choice(
+                    participantId,
+                    result.getString("display_name"),
+                    result.getString("full_name")
+                );
+            }
+            tracer.finish(Query.AUTHOR_CHOICE, started, sql, connection);
+            return choice;
+        }
+    }
+
+    private DistractorSampler distractorSampler(PooledConnection connection) throws SQLException {
+        DistractorSampler loaded = sampler;
+        if (loaded != null) {
+            return loaded;
+        }
+        indexLock.lock();
+        try {
+            if (sampler == null) {
+                sampler = loadDistractorSampler(connection);
+            }
+            return sampler;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private TimelineIndex timelineIndex(PooledConnection connection) throws SQLException {
+        TimelineIndex loaded = timeline;
+        if (loaded != null) {
+            return loaded;
+        }
+        indexLock.lock();
+        try {
+            if (timeline == null) {
+                timeline = TimelineIndex.load(connection.connection());
+            }
+            return timeline;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private DistractorSampler loadDistractorSampler(PooledConnection connection) throws SQLException {
+        List<Choice> participants = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        String sql = compiled ? COMPILED_PARTICIPANT_STATS_SQL : PARTICIPANT_STATS_SQL;
+        long started = tracer.start();
+        try (ResultSet result = connection.prepare(sql).executeQuery()) {
+            while (result.next()) {
+                participants.add(new Choice(
+                    result.getString("id"),
+                    result.getString("display_name"),
+                    result.getString("full_name")
+                ));
+                counts.add(result.getLong("message_count"));
+            }
+        }
+        tracer.finish(Query.DISTRACTOR_STATS, started, sql, connection);
+        long[] countArray = new long[counts.size()];
+        for (int i = 0; i < countArray.length; i++) {
+            countArray[i] = counts.get(i);
+        }
+        return DistractorSampler.build(participants, countArray, weighting);
+    }
+
+    private List<Attachment> loadAttachments(PooledConnection connection, String messageId) throws SQLException {
+        String sql = """
+            SELECT url, file_name
+            FROM attachments
+            WHERE message_id = ?
+            ORDER BY rowid
+        """;
+        List<Attachment> attachments = new ArrayList<>();
+        PreparedStatement statement = connection.prepare(sql);
+        statement.setString(1, messageId);
+        long started = tracer.start();
+        try (ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                attachments.add(new Attachment(
+                    result.getString("url"),
+                    result.getString("file_name")
+                ));
+            }
+        }
+        tracer.finish(Query.ATTACHMENTS, started, sql, connection);
+        return attachments;
+    }
+
+    private List<String> loadEmbeds(PooledConnection connection, String messageId) throws SQLException {
+        String sql = """
+            SELECT raw_json
+            FROM embeds
+            WHERE message_id = ?
+            ORDER BY id
+        """;
+        List<String> embeds = new ArrayList<>();
+        PreparedStatement statement = connection.prepare(sql);
+        statement.setString(1, messageId);
+        long started = tracer.start();
+        try (ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                String raw = result.getString("raw_json");
+                if (raw != null && !raw.isBlank()) {
+                    embeds.add(raw.trim());
+                }
+            }
+        }
+        tracer.finish(Query.EMBEDS, started, sql, connection);
+        return embeds;
+    }
+
+    private List<ContextSnippet> loadSnippets(
+        PooledConnection connection,
+        List<String> messageIds,
+        Query query
+    ) throws SQLException {
+        if (messageIds.isEmpty()) {
+            return List.of();
+        }
+        List<ContextSnippet> snippets = new ArrayList<>(messageIds.size());
+        PreparedStatement statement = connection.prepare(SNIPPET_SQL);
+        for (String messageId : messageIds) {
+            statement.setString(1, messageId);
+            long started = tracer.start();
+            try (ResultSet result = statement.executeQuery()) {
+                if (result.next()) {
+                    snippets.add(new ContextSnippet(
+                        result.getString("id"),
+                        MessageRepository.cleanContent(result.getString("content")),
+                        result.getString("timestamp"),
+                        result.getString("display_name")
+                    ));
+                }
+            }
+            tracer.finish(query, started, SNIPPET_SQL, connection);
+        }
+        return snippets;
+    }
+}
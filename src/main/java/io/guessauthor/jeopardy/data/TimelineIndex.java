@@ -0,0 +1,127 @@
+package io.guessauthor.jeopardy.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every timestamped message in a room database, ordered by timestamp and then by snowflake id,
+ * with each message's position in that order. Context lookups become array offsets.
+ */
+final class TimelineIndex {
+
+    private static final Comparator<String[]> TIMELINE_ORDER = Comparator
+        .<String[], String>comparing(row -> row[1])
+        .thenComparing(row -> row[0], TimelineIndex::compareSnowflakes);
+
+    private final String[] orderedIds;
+    private final Map<String, Integer> positions;
+
+    private TimelineIndex(String[] orderedIds) {
+        this.orderedIds = orderedIds;
+        this.positions = new HashMap<>(orderedIds.length * 2);
+        for (int i = 0; i < orderedIds.length; i++) {
+            positions.put(orderedIds[i], i);
+        }
+    }
+
+    static TimelineIndex load(Connection connection) throws SQLException {
+        String sql = """
+            SELECT id, timestamp
+            FROM messages
+            WHERE timestamp IS NOT NULL
+              AND id IS NOT NULL
+        """;
+        List<String[]> rows = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                rows.add(new String[] {result.getString("id"), result.getString("timestamp")});
+            }
+        }
+        rows.sort(TIMELINE_ORDER);
+        String[] orderedIds = new String[rows.size()];
+        for (int i = 0; i < orderedIds.length; i++) {
+            orderedIds[i] = rows.get(i)[0];
+        }
+        return new TimelineIndex(orderedIds);
+    }
+
+    int size() {
+        return orderedIds.length;
+    }
+
+    String idAt(int position) {
+        return orderedIds[position];
+    }
+
+    /**
+     * Position of the message in timeline order, or {@code -1} if it has no timestamp.
+     */
+    int positionOf(String messageId) {
+        Integer position = positions.get(messageId);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Rough heap footprint: each id string plus its array slot and position map entry.
+     */
+    long estimatedBytes() {
+        long total = 0;
+        for (String id : orderedIds) {
+            total += 40 + (long) id.length() * 2;
+        }
+        return total + (long) orderedIds.length * (8 + 48 + 16);
+    }
+
+    /**
+     * Ids of up to {@code count} messages immediately before the given one, oldest first.
+     */
+    List<String> before(String messageId, int count) {
+        Integer position = positions.get(messageId);
+        if (position == null || count <= 0) {
+            return List.of();
+        }
+        int from = Math.max(0, position - count);
+        return Arrays.asList(orderedIds).subList(from, position);
+    }
+
+    /**
+     * Ids of up to {@code count} messages immediately after the given one, oldest first.
+     */
+    List<String> after(String messageId, int count) {
+        Integer position = positions.get(messageId);
+        if (position == null || count <= 0) {
+            return List.of();
+        }
+        int to = Math.min(orderedIds.length, position + 1 + count);
+        return Arrays.asList(orderedIds).subList(position + 1, to);
+    }
+
+    private static int compareSnowflakes(String left, String right) {
+        if (left.length() != right.length() && isDigits(left) && isDigits(right)) {
+            return Integer.compare(left.length(), right.length());
+        }
+        return left.compareTo(right);
+    }
+
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
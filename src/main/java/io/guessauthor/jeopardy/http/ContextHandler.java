@@ -9,6 +9,7 @@ import io.guessauthor.jeopardy.rooms.PlayerSession;
 import io.guessauthor.jeopardy.rooms.Room;
 import io.guessauthor.jeopardy.rooms.RoomManager;
 import io.guessauthor.jeopardy.util.HttpUtil;
+import io.guessauthor.jeopardy.util.JsonFragmentCache;
 import io.guessauthor.jeopardy.util.JsonResponses;
 
 import java.io.IOException;
@@ -21,9 +22,11 @@ import java.util.Optional;
 public final class ContextHandler implements HttpHandler {
 
     private final RoomManager roomManager;
+    private final JsonFragmentCache fragmentCache;
 
-    public ContextHandler(RoomManager roomManager) {
+    public ContextHandler(RoomManager roomManager, JsonFragmentCache fragmentCache) {
         this.roomManager = roomManager;
+        this.fragmentCache = fragmentCache;
     }
 
     @Override
@@ -44,33 +47,37 @@ public final class ContextHandler implements HttpHandler {
             return;
         }
 
-        Optional<Room> roomOptional = roomManager.room(roomId);
+        Optional<Room> roomOptional = roomManager.enterRoom(roomId);
         if (roomOptional.isEmpty()) {
             HttpUtil.respondWithStatus(exchange, 404, "Room not found");
             return;
         }
 
         Room room = roomOptional.get();
-        PlayerSession session = room.getOrCreatePlayer(username);
-        ContextUnlockResult result = session.engine().unlockContext(questionId);
-        ContextStatus status = result.status();
+        try {
+            PlayerSession session = room.getOrCreatePlayer(username);
+            ContextUnlockResult result = session.engine().unlockContext(questionId);
+            ContextStatus status = result.status();
 
-        if (status == ContextStatus.NOT_FOUND) {
-            HttpUtil.respondWithStatus(exchange, 404, "Question not found or expired");
-            return;
-        }
-        if (status == ContextStatus.INSUFFICIENT_FUNDS) {
-            HttpUtil.respondWithStatus(exchange, 400, "Not enough points to buy context");
-            return;
-        }
-        if (status == ContextStatus.ERROR) {
-            HttpUtil.respondWithStatus(exchange, 500, "Database error while fetching context");
-            return;
-        }
+            if (status == ContextStatus.NOT_FOUND) {
+                HttpUtil.respondWithStatus(exchange, 404, "Question not found or expired");
+                return;
+            }
+            if (status == ContextStatus.INSUFFICIENT_FUNDS) {
+                HttpUtil.respondWithStatus(exchange, 400, "Not enough points to buy context");
+                return;
+            }
+            if (status == ContextStatus.ERROR) {
+                HttpUtil.respondWithStatus(exchange, 500, "Database error while fetching context");
+                return;
+            }
 
-        ContextResponse response = result.response();
-        String json = JsonResponses.context(response);
-        HttpUtil.respondJson(exchange, 200, json);
+            ContextResponse response = result.response();
+            JsonFragmentCache.Scope fragments = fragmentCache.scope(session.engine().repository().instanceId());
+            HttpUtil.respondJson(exchange, 200, writer -> JsonResponses.context(writer, response, fragments));
+        } finally {
+            room.exit();
+        }
     }
 
     private static String readBody(InputStream inputStream) throws IOException {
@@ -10,6 +10,7 @@ import io.guessauthor.jeopardy.rooms.PlayerSession;
 import io.guessauthor.jeopardy.rooms.Room;
 import io.guessauthor.jeopardy.rooms.RoomManager;
 import io.guessauthor.jeopardy.util.HttpUtil;
+import io.guessauthor.jeopardy.util.JsonFragmentCache;
 import io.guessauthor.jeopardy.util.JsonResponses;
 
 import java.io.IOException;
@@ -22,9 +23,11 @@ import java.util.Optional;
 public final class GuessHandler implements HttpHandler {
 
     private final RoomManager roomManager;
+    private final JsonFragmentCache fragmentCache;
 
-    public GuessHandler(RoomManager roomManager) {
+    public GuessHandler(RoomManager roomManager, JsonFragmentCache fragmentCache) {
         this.roomManager = roomManager;
+        this.fragmentCache = fragmentCache;
     }
 
     @Override
@@ -48,28 +51,32 @@ public final class GuessHandler implements HttpHandler {
             return;
         }
 
-        Optional<Room> roomOptional = roomManager.room(roomId);
+        Optional<Room> roomOptional = roomManager.enterRoom(roomId);
         if (roomOptional.isEmpty()) {
             HttpUtil.respondWithStatus(exchange, 404, "Room not found");
             return;
         }
 
         Room room = roomOptional.get();
-        PlayerSession session = room.getOrCreatePlayer(username);
-        GuessEvaluationResult result = session.engine().evaluateGuess(questionId, choiceId);
-
-        if (result.status() == GuessStatus.NOT_FOUND) {
-            HttpUtil.respondWithStatus(exchange, 404, "Question not found or expired");
-            return;
+        try {
+            PlayerSession session = room.getOrCreatePlayer(username);
+            GuessEvaluationResult result = session.engine().evaluateGuess(questionId, choiceId);
+
+            if (result.status() == GuessStatus.NOT_FOUND) {
+                HttpUtil.respondWithStatus(exchange, 404, "Question not found or expired");
+                return;
+            }
+            if (result.status() == GuessStatus.INVALID_REQUEST) {
+                HttpUtil.respondWithStatus(exchange, 400, "Invalid choiceId");
+                return;
+            }
+
+            GuessResponse response = result.response();
+            JsonFragmentCache.Scope fragments = fragmentCache.scope(session.engine().repository().instanceId());
+            HttpUtil.respondJson(exchange, 200, writer -> JsonResponses.guess(writer, response, fragments));
+        } finally {
+            room.exit();
         }
-        if (result.status() == GuessStatus.INVALID_REQUEST) {
-            HttpUtil.respondWithStatus(exchange, 400, "Invalid choiceId");
-            return;
-        }
-
-        GuessResponse response = result.response();
-        String json = JsonResponses.guess(response);
-        HttpUtil.respondJson(exchange, 200, json);
     }
 
     private static String readBody(InputStream inputStream) throws IOException {
@@ -0,0 +1,36 @@
+package io.guessauthor.jeopardy.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.guessauthor.jeopardy.util.RequestMetrics;
+
+import java.io.IOException;
+
+/**
+ * Times another handler and counts its responses by status. A handler that throws before
+ * responding is counted as a 5xx, which is what the client sees once the server drops it.
+ */
+public final class InstrumentedHandler implements HttpHandler {
+
+    private final HttpHandler delegate;
+    private final RequestMetrics.HandlerMetrics metrics;
+
+    public InstrumentedHandler(HttpHandler delegate, RequestMetrics.HandlerMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        metrics.started();
+        try {
+            delegate.handle(exchange);
+            failed = false;
+        } finally {
+            int status = exchange.getResponseCode();
+            metrics.completed(failed && status < 0 ? 500 : status, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.guessauthor.jeopardy.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.guessauthor.jeopardy.data.QueryTracer;
+import io.guessauthor.jeopardy.rooms.RoomManager;
+import io.guessauthor.jeopardy.rooms.RoomManager.ActivityStats;
+import io.guessauthor.jeopardy.rooms.RoomManager.ResidencyStats;
+import io.guessauthor.jeopardy.util.HttpUtil;
+import io.guessauthor.jeopardy.util.JsonFragmentCache;
+import io.guessauthor.jeopardy.util.RequestMetrics;
+import io.guessauthor.jeopardy.util.ResponseCompression;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Prometheus text exposition of per-handler request metrics plus gauges read at scrape time.
+ * Everything is aggregated across rooms, so unlike {@code /api/residency} no room ids (which are
+ * join codes) are exposed.
+ */
+public final class MetricsHandler implements HttpHandler {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final RoomManager roomManager;
+    private final JsonFragmentCache fragmentCache;
+    private final RequestMetrics requestMetrics;
+    private final QueryTracer queryTracer;
+    private final ExecutorService executor;
+
+    public MetricsHandler(
+        RoomManager roomManager,
+        JsonFragmentCache fragmentCache,
+        RequestMetrics requestMetrics,
+        QueryTracer queryTracer,
+        ExecutorService executor
+    ) {
+        this.roomManager = roomManager;
+        this.fragmentCache = fragmentCache;
+        this.requestMetrics = requestMetrics;
+        this.queryTracer = queryTracer;
+        this.executor = executor;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpUtil.respondWithStatus(exchange, 405, "Method Not Allowed");
+            return;
+        }
+
+        StringBuilder out = new StringBuilder(8_192);
+        requestMetrics.appendTo(out);
+        queryTracer.appendTo(out);
+
+        ActivityStats activity = roomManager.activity();
+        out.append("# HELP jeopardy_rooms Rooms known to the server, by whether they are loaded.\n");
+        out.append("# TYPE jeopardy_rooms gauge\n");
+        out.append("jeopardy_rooms{state=\"resident\"} ").append(activity.residentRooms()).append('\n');
+        out.append("jeopardy_rooms{state=\"evicted\"} ").append(activity.totalRooms() - activity.residentRooms()).append('\n');
+        gauge(out, "jeopardy_players", "Player sessions in resident rooms.", activity.players());
+        gauge(out, "jeopardy_active_questions", "Questions issued and not yet answered or expired.", activity.activeQuestions());
+        gauge(out, "jeopardy_prefetched_questions", "Questions buffered ahead by the prefetcher.", activity.prefetchedQuestions());
+        gauge(out, "jeopardy_deck_messages", "Message ids across all player decks.", activity.deckMessages());
+        gauge(out, "jeopardy_deck_remaining_messages", "Message ids left in the current pass of all player decks.", activity.deckRemaining());
+
+        ResidencyStats residency = roomManager.residency();
+        gauge(out, "jeopardy_room_resident_bytes", "Estimated heap held by resident rooms.", residency.residentBytes());
+        gauge(out, "jeopardy_room_budget_bytes", "Heap budget for resident rooms; 0 means unlimited.", residency.budgetBytes());
+        counter(out, "jeopardy_room_evictions_total", "Rooms unloaded to stay within budget or after idling.", residency.evictions());
+        counter(out, "jeopardy_room_rehydrations_total", "Evicted rooms loaded again on demand.", residency.rehydrations());
+
+        JsonFragmentCache.Stats fragments = fragmentCache.stats();
+        gauge(out, "jeopardy_fragment_cache_bytes", "Bytes of pre-encoded JSON held by the fragment cache.", fragments.usedBytes());
+        counter(out, "jeopardy_fragment_cache_hits_total", "Fragment cache hits.", fragments.hits());
+        counter(out, "jeopardy_fragment_cache_misses_total", "Fragment cache misses.", fragments.misses());
+        counter(out, "jeopardy_fragment_cache_evictions_total", "Fragments evicted to stay within budget.", fragments.evictions());
+
+        ResponseCompression.Stats compression = HttpUtil.compression().stats();
+        counter(out, "jeopardy_gzip_responses_total", "JSON responses sent gzipped.", compression.compressed());
+        counter(out, "jeopardy_gzip_bytes_in_total", "Bytes of JSON before compression.", compression.bytesIn());
+        counter(out, "jeopardy_gzip_bytes_out_total", "Bytes of JSON after compression.", compression.bytesOut());
+        counter(out, "jeopardy_gzip_skipped_total", "Responses that accepted gzip but were sent plain, being below the size threshold.", compression.skipped());
+        secondsCounter(out, "jeopardy_gzip_seconds_total", "Time spent deflating responses, excluding writes to the client.", compression.nanos());
+
+        long queued = 0;
+        if (executor instanceof ThreadPoolExecutor pool) {
+            queued = pool.getQueue().size();
+            gauge(out, "jeopardy_executor_active_threads", "Request threads currently running a handler.", pool.getActiveCount());
+            gauge(out, "jeopardy_executor_pool_threads", "Request threads in the pool.", pool.getPoolSize());
+        }
+        gauge(out, "jeopardy_executor_queue_depth", "Requests waiting for a request thread.", queued);
+
+        HttpUtil.respondText(exchange, 200, CONTENT_TYPE, out.toString());
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        family(out, name, help, "gauge", String.valueOf(value));
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        family(out, name, help, "counter", String.valueOf(value));
+    }
+
+    private static void secondsCounter(StringBuilder out, String name, String help, long nanos) {
+        family(out, name, help, "counter", String.valueOf(nanos / 1e9));
+    }
+
+    private static void family(StringBuilder out, String name, String help, String type, String value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append(name).append(' ').append(value).append('\n');
+    }
+}
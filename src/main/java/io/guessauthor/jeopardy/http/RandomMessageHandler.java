@@ -7,6 +7,7 @@ import io.guessauthor.jeopardy.rooms.PlayerSession;
 import io.guessauthor.jeopardy.rooms.Room;
 import io.guessauthor.jeopardy.rooms.RoomManager;
 import io.guessauthor.jeopardy.util.HttpUtil;
+import io.guessauthor.jeopardy.util.JsonFragmentCache;
 import io.guessauthor.jeopardy.util.JsonResponses;
 
 import java.io.IOException;
@@ -17,9 +18,11 @@ import java.util.Optional;
 public final class RandomMessageHandler implements HttpHandler {
 
     private final RoomManager roomManager;
+    private final JsonFragmentCache fragmentCache;
 
-    public RandomMessageHandler(RoomManager roomManager) {
+    public RandomMessageHandler(RoomManager roomManager, JsonFragmentCache fragmentCache) {
         this.roomManager = roomManager;
+        this.fragmentCache = fragmentCache;
     }
 
     @Override
@@ -37,27 +40,28 @@ public final class RandomMessageHandler implements HttpHandler {
             return;
         }
 
-        Optional<Room> roomOptional = roomManager.room(roomId);
+        Optional<Room> roomOptional = roomManager.enterRoom(roomId);
         if (roomOptional.isEmpty()) {
             HttpUtil.respondWithStatus(exchange, 404, "Room not found");
             return;
         }
 
         Room room = roomOptional.get();
-        PlayerSession session = room.getOrCreatePlayer(username);
-
         try {
-            session.engine().forfeitOutstandingQuestions();
-            session.engine().pruneExpiredQuestions();
+            PlayerSession session = room.getOrCreatePlayer(username);
+            session.engine().forfeitOutstandingQuestion();
             Optional<GameEngine.QuestionResponse> response = session.engine().prepareQuestion();
             if (response.isEmpty()) {
                 HttpUtil.respondWithStatus(exchange, 503, "No messages available");
                 return;
             }
-            String json = JsonResponses.question(response.get());
-            HttpUtil.respondJson(exchange, 200, json);
+            GameEngine.QuestionResponse question = response.get();
+            JsonFragmentCache.Scope fragments = fragmentCache.scope(session.engine().repository().instanceId());
+            HttpUtil.respondJson(exchange, 200, writer -> JsonResponses.question(writer, question, fragments));
         } catch (IllegalStateException ex) {
             HttpUtil.respondWithStatus(exchange, 500, "Database error while loading message");
+        } finally {
+            room.exit();
         }
     }
 
@@ -0,0 +1,85 @@
+package io.guessauthor.jeopardy.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.guessauthor.jeopardy.rooms.RoomManager;
+import io.guessauthor.jeopardy.rooms.RoomManager.ResidencyStats;
+import io.guessauthor.jeopardy.rooms.RoomManager.RoomResidency;
+import io.guessauthor.jeopardy.util.HttpUtil;
+import io.guessauthor.jeopardy.util.JsonFragmentCache;
+import io.guessauthor.jeopardy.util.ResponseCompression;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Which rooms are loaded and roughly how much heap they hold, plus the JSON fragment cache and
+ * response compression counters. Room ids double as join codes, so
+ * this is only answered for requests from the local machine.
+ */
+public final class ResidencyHandler implements HttpHandler {
+
+    private final RoomManager roomManager;
+    private final JsonFragmentCache fragmentCache;
+
+    public ResidencyHandler(RoomManager roomManager, JsonFragmentCache fragmentCache) {
+        this.roomManager = roomManager;
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpUtil.respondWithStatus(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        InetSocketAddress remote = exchange.getRemoteAddress();
+        if (remote == null || remote.getAddress() == null || !remote.getAddress().isLoopbackAddress()) {
+            HttpUtil.respondWithStatus(exchange, 403, "Forbidden");
+            return;
+        }
+
+        ResidencyStats stats = roomManager.residency();
+        JsonFragmentCache.Stats fragments = fragmentCache.stats();
+        ResponseCompression.Stats compression = HttpUtil.compression().stats();
+        HttpUtil.respondJson(exchange, 200, writer -> {
+            writer.beginObject()
+                .name("budgetBytes").value(stats.budgetBytes())
+                .name("residentBytes").value(stats.residentBytes())
+                .name("residentRooms").value(stats.residentRooms())
+                .name("totalRooms").value(stats.totalRooms())
+                .name("evictions").value(stats.evictions())
+                .name("rehydrations").value(stats.rehydrations());
+            writer.name("fragmentCache").beginObject()
+                .name("budgetBytes").value(fragments.budgetBytes())
+                .name("usedBytes").value(fragments.usedBytes())
+                .name("entries").value(fragments.entries())
+                .name("hits").value(fragments.hits())
+                .name("misses").value(fragments.misses())
+                .name("evictions").value(fragments.evictions())
+                .endObject();
+            writer.name("compression").beginObject()
+                .name("minBytes").value(compression.minBytes())
+                .name("compressed").value(compression.compressed())
+                .name("skipped").value(compression.skipped())
+                .name("bytesIn").value(compression.bytesIn())
+                .name("bytesOut").value(compression.bytesOut())
+                .name("ratio").value(compression.ratio())
+                .name("millis").value(compression.nanos() / 1_000_000.0)
+                .endObject();
+            writer.name("rooms").beginArray();
+            for (RoomResidency room : stats.rooms()) {
+                writer.beginObject()
+                    .name("roomId").value(room.roomId())
+                    .name("displayName").value(room.displayName())
+                    .name("resident").value(room.resident())
+                    .name("estimatedBytes").value(room.estimatedBytes())
+                    .name("players").value(room.players())
+                    .name("idleSeconds").value(room.idleSeconds())
+                    .name("evictions").value(room.evictions())
+                    .endObject();
+            }
+            writer.endArray().endObject();
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package io.guessauthor.jeopardy.http;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.guessauthor.jeopardy.rooms.LeaderboardBroadcaster;
+import io.guessauthor.jeopardy.rooms.Room;
+import io.guessauthor.jeopardy.rooms.RoomManager;
+import io.guessauthor.jeopardy.util.HttpUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Server-Sent Events stream of a room's leaderboard. The exchange is left open after the handler
+ * returns, so a subscriber does not hold a request thread; frames are written by the room's
+ * {@link LeaderboardBroadcaster}.
+ */
+public final class RoomEventsHandler implements HttpHandler {
+
+    private final RoomManager roomManager;
+
+    public RoomEventsHandler(RoomManager roomManager) {
+        this.roomManager = roomManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpUtil.respondWithStatus(exchange, 405, "Method Not Allowed");
+            return;
+        }
+
+        Map<String, String> params = HttpUtil.parseQueryParameters(exchange.getRequestURI().getRawQuery());
+        String roomId = params.get("roomId");
+        if (roomId == null || roomId.isBlank()) {
+            HttpUtil.respondWithStatus(exchange, 400, "Missing roomId");
+            return;
+        }
+
+        Optional<Room> roomOptional = roomManager.enterRoom(roomId);
+        if (roomOptional.isEmpty()) {
+            HttpUtil.respondWithStatus(exchange, 404, "Room not found");
+            return;
+        }
+        Room room = roomOptional.get();
+        try {
+            if (!room.broadcaster().acceptingSubscribers()) {
+                HttpUtil.respondWithStatus(exchange, 503, "Too many leaderboard subscribers");
+                return;
+            }
+
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("Content-Type", "text/event-stream; charset=utf-8");
+            headers.set("Cache-Control", "no-cache");
+            headers.set("X-Accel-Buffering", "no");
+            headers.set("X-Content-Type-Options", "nosniff");
+            exchange.sendResponseHeaders(200, 0);
+
+            ExchangeSink sink = new ExchangeSink(exchange);
+            if (!room.broadcaster().subscribe(sink, room.id(), room.displayName())) {
+                sink.close();
+            }
+        } finally {
+            room.exit();
+        }
+    }
+
+    private static final class ExchangeSink implements LeaderboardBroadcaster.Sink {
+
+        private final HttpExchange exchange;
+        private final OutputStream output;
+
+        private ExchangeSink(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.output = exchange.getResponseBody();
+        }
+
+        @Override
+        public void write(byte[] frame) throws IOException {
+            output.write(frame);
+            output.flush();
+        }
+
+        @Override
+        public void close() {
+            exchange.close();
+        }
+    }
+}
@@ -7,7 +7,6 @@ import io.guessauthor.jeopardy.rooms.Room;
 import io.guessauthor.jeopardy.rooms.RoomManager;
 import io.guessauthor.jeopardy.rooms.RoomManager.RoomCreationResult;
 import io.guessauthor.jeopardy.util.HttpUtil;
-import io.guessauthor.jeopardy.util.JsonUtil;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -15,16 +14,21 @@ import java.sql.SQLException;
 import java.io.IOException;
 import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.Semaphore;
 
 public final class RoomsHandler implements HttpHandler {
 
     private static final int MAX_DB_BYTES = 25 * 1024 * 1024; // 25 MB
     private static final int MAX_ROOM_NAME_LENGTH = 40;
+    private static final int DEFAULT_LEADERBOARD_LIMIT = 100;
+    private static final int MAX_LEADERBOARD_LIMIT = 500;
+    private static final int MAX_CONCURRENT_UPLOADS = 4;
 
     private final RoomManager roomManager;
+    private final Semaphore uploadPermits = new Semaphore(MAX_CONCURRENT_UPLOADS);
 
     public RoomsHandler(RoomManager roomManager) {
         this.roomManager = roomManager;
@@ -40,6 +44,55 @@ public final class RoomsHandler implements HttpHandler {
     }
 
     private void handleCreate(HttpExchange exchange) throws IOException {
+        if (!uploadPermits.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            HttpUtil.respondWithStatus(exchange, 503, "Too many uploads in progress");
+            return;
+        }
+        try {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("application/octet-stream")) {
+                handleStreamingCreate(exchange);
+            } else {
+                handleFormCreate(exchange);
+            }
+        } finally {
+            uploadPermits.release();
+        }
+    }
+
+    /**
+     * Raw database upload: the body is the SQLite file and the room name is a query parameter.
+     */
+    private void handleStreamingCreate(HttpExchange exchange) throws IOException {
+        Map<String, String> params = HttpUtil.parseQueryParameters(exchange.getRequestURI().getRawQuery());
+        String roomName = sanitizeRoomName(params.get("roomName"));
+
+        String declaredLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declaredLength != null) {
+            try {
+                if (Long.parseLong(declaredLength.trim()) > MAX_DB_BYTES) {
+                    HttpUtil.respondWithStatus(exchange, 413, "Database file exceeds size limit (25 MB)");
+                    return;
+                }
+            } catch (NumberFormatException ex) {
+                HttpUtil.respondWithStatus(exchange, 400, "Invalid Content-Length");
+                return;
+            }
+        }
+
+        try (InputStream body = exchange.getRequestBody()) {
+            respondCreated(exchange, roomManager.createRoomFromUpload(roomName, body));
+        } catch (RoomManager.UploadTooLargeException ex) {
+            HttpUtil.respondWithStatus(exchange, 413, "Database file exceeds size limit (25 MB)");
+        } catch (SQLException ex) {
+            HttpUtil.respondWithStatus(exchange, 400, "Database has no eligible messages");
+        } catch (IOException ex) {
+            HttpUtil.respondWithStatus(exchange, 500, "Failed to store uploaded database");
+        }
+    }
+
+    private void handleFormCreate(HttpExchange exchange) throws IOException {
         String body = readBody(exchange.getRequestBody());
         Map<String, String> params = HttpUtil.parseFormUrlEncoded(body);
         String roomName = sanitizeRoomName(params.get("roomName"));
@@ -64,17 +117,7 @@ public final class RoomsHandler implements HttpHandler {
         }
 
         try {
-            RoomCreationResult result = roomManager.createRoom(roomName, databaseBytes);
-            String json = """
-                {
-                  "roomId": %s,
-                  "displayName": %s
-                }
-                """.formatted(
-                JsonUtil.toJsonValue(result.roomId()),
-                JsonUtil.toJsonValue(result.displayName())
-            );
-            HttpUtil.respondJson(exchange, 201, json);
+            respondCreated(exchange, roomManager.createRoom(roomName, databaseBytes));
         } catch (SQLException ex) {
             HttpUtil.respondWithStatus(exchange, 400, "Database has no eligible messages");
         } catch (IOException ex) {
@@ -82,6 +125,13 @@ public final class RoomsHandler implements HttpHandler {
         }
     }
 
+    private static void respondCreated(HttpExchange exchange, RoomCreationResult result) throws IOException {
+        HttpUtil.respondJson(exchange, 201, writer -> writer.beginObject()
+            .name("roomId").value(result.roomId())
+            .name("displayName").value(result.displayName())
+            .endObject());
+    }
+
     private void handleInfo(HttpExchange exchange) throws IOException {
         Map<String, String> params = HttpUtil.parseQueryParameters(exchange.getRequestURI().getRawQuery());
         String roomId = params.get("roomId");
@@ -97,36 +147,55 @@ public final class RoomsHandler implements HttpHandler {
         }
 
         Room room = roomOptional.get();
-        List<PlayerRecord> leaderboard = room.leaderboard();
-        String playersJson = leaderboard.stream()
-            .map(record -> """
-                {
-                  "username": %s,
-                  "totalPoints": %s,
-                  "currentStreak": %s,
-                  "bestStreak": %s
-                }
-                """.formatted(
-                JsonUtil.toJsonValue(record.username()),
-                Long.toString(record.snapshot().totalPoints()),
-                Integer.toString(record.snapshot().currentStreak()),
-                Integer.toString(record.snapshot().bestStreak())
-            ))
-            .collect(Collectors.joining(","));
-
-        String json = """
-            {
-              "roomId": %s,
-              "displayName": %s,
-              "leaderboard": [%s]
+        int limit;
+        int offset;
+        try {
+            limit = parseBounded(params.get("limit"), DEFAULT_LEADERBOARD_LIMIT, 1, MAX_LEADERBOARD_LIMIT);
+            offset = parseBounded(params.get("offset"), 0, 0, Integer.MAX_VALUE);
+        } catch (NumberFormatException ex) {
+            HttpUtil.respondWithStatus(exchange, 400, "Invalid limit or offset");
+            return;
+        }
+
+        String around = params.get("around");
+        if (around != null && !around.isBlank()) {
+            int rank = room.rankOf(around);
+            if (rank == 0) {
+                HttpUtil.respondWithStatus(exchange, 404, "Player not found");
+                return;
+            }
+            offset = Math.max(0, rank - 1 - limit / 2);
+        }
+
+        List<PlayerRecord> leaderboard = room.leaderboard(offset, limit);
+        int pageOffset = offset;
+        HttpUtil.respondJson(exchange, 200, writer -> {
+            writer.beginObject()
+                .name("roomId").value(room.id())
+                .name("displayName").value(room.displayName())
+                .name("totalPlayers").value(room.playerCount())
+                .name("offset").value(pageOffset)
+                .name("leaderboard").beginArray();
+            for (int i = 0; i < leaderboard.size(); i++) {
+                PlayerRecord record = leaderboard.get(i);
+                writer.beginObject()
+                    .name("rank").value(pageOffset + i + 1)
+                    .name("username").value(record.username())
+                    .name("totalPoints").value(record.snapshot().totalPoints())
+                    .name("currentStreak").value(record.snapshot().currentStreak())
+                    .name("bestStreak").value(record.snapshot().bestStreak())
+                    .endObject();
             }
-            """.formatted(
-            JsonUtil.toJsonValue(room.id()),
-            JsonUtil.toJsonValue(room.displayName()),
-            playersJson
-        );
+            writer.endArray().endObject();
+        });
+    }
 
-        HttpUtil.respondJson(exchange, 200, json);
+    private static int parseBounded(String value, int fallback, int min, int max) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        int parsed = Integer.parseInt(value.trim());
+        return Math.max(min, Math.min(max, parsed));
     }
 
     private static String readBody(InputStream inputStream) throws IOException {
@@ -0,0 +1,224 @@
+package io.guessauthor.jeopardy.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory copies of the files under the web root, each with a gzip variant and a strong ETag.
+ * A WatchService drops entries when their files change. If the watcher cannot be started, every
+ * hit is checked against the file's size and modification time instead.
+ */
+final class StaticAssetCache implements AutoCloseable {
+
+    private static final long MAX_CACHED_BYTES = 2L * 1024 * 1024;
+
+    private final Path baseDir;
+    private final Function<Path, String> contentTypes;
+    private final Map<Path, Asset> assets = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    /** Bumped by the watcher before it drops entries, so a load racing a change can tell. */
+    private final AtomicLong generation = new AtomicLong();
+    private final WatchService watcher;
+
+    StaticAssetCache(Path baseDir, Function<Path, String> contentTypes) {
+        this.baseDir = baseDir;
+        this.contentTypes = contentTypes;
+        this.watcher = startWatcher();
+    }
+
+    /**
+     * Returns the cached asset for a regular file, loading it on a miss. Returns {@code null} for
+     * files too large to cache; callers serve those straight from disk.
+     */
+    Asset get(Path file) throws IOException {
+        Asset asset = assets.get(file);
+        if (asset != null && (watcher != null || asset.matches(file))) {
+            return asset;
+        }
+        long loadedGeneration = generation.get();
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (attributes.size() > MAX_CACHED_BYTES) {
+            return null;
+        }
+        asset = load(file, attributes);
+        assets.put(file, asset);
+        if (generation.get() != loadedGeneration) {
+            // The watcher may have dropped this file before the put; it may be stale, so only
+            // this request gets it.
+            assets.remove(file, asset);
+        }
+        return asset;
+    }
+
+    int size() {
+        return assets.size();
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException ignored) {
+                // Shutting down; nothing to recover.
+            }
+        }
+    }
+
+    private Asset load(Path file, BasicFileAttributes attributes) throws IOException {
+        byte[] raw = Files.readAllBytes(file);
+        String contentType = contentTypes.apply(file);
+        String hash = HexFormat.of().formatHex(sha256().digest(raw), 0, 16);
+        byte[] gzip = null;
+        if (isCompressible(contentType)) {
+            byte[] compressed = gzip(raw);
+            if (compressed.length < raw.length) {
+                gzip = compressed;
+            }
+        }
+        return new Asset(
+            raw,
+            gzip,
+            "\"" + hash + "\"",
+            "\"" + hash + "-gz\"",
+            contentType,
+            attributes.size(),
+            attributes.lastModifiedTime()
+        );
+    }
+
+    private WatchService startWatcher() {
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            registerTree(service, baseDir);
+            Thread thread = new Thread(() -> watchLoop(service), "static-asset-watcher");
+            thread.setDaemon(true);
+            thread.start();
+            return service;
+        } catch (IOException | UnsupportedOperationException ex) {
+            System.err.printf("Static file watcher unavailable (%s); validating cached files on each hit.%n", ex.getMessage());
+            return null;
+        }
+    }
+
+    private void registerTree(WatchService service, Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(
+                    service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE
+                );
+                watchedDirs.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watchLoop(WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException ex) {
+                return;
+            }
+            generation.incrementAndGet();
+            Path dir = watchedDirs.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                    assets.clear();
+                    continue;
+                }
+                Path changed = dir.resolve((Path) event.context());
+                if (Files.isDirectory(changed)) {
+                    // A new or replaced directory: forget everything under it and watch it too.
+                    assets.keySet().removeIf(path -> path.startsWith(changed));
+                    try {
+                        registerTree(service, changed);
+                    } catch (IOException | ClosedWatchServiceException ignored) {
+                        // The directory vanished again or we are shutting down.
+                    }
+                } else {
+                    assets.keySet().removeIf(path -> path.startsWith(changed));
+                }
+            }
+            if (!key.reset()) {
+                watchedDirs.remove(key);
+                if (dir != null) {
+                    assets.keySet().removeIf(path -> path.startsWith(dir));
+                }
+            }
+        }
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/")
+            || contentType.startsWith("application/javascript")
+            || contentType.startsWith("application/json")
+            || contentType.startsWith("image/svg+xml");
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(raw.length / 3 + 64);
+        try (GZIPOutputStream output = new GZIPOutputStream(buffer)) {
+            output.write(raw);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
+
+    /**
+     * @param gzip compressed bytes, or {@code null} if compression does not pay off
+     */
+    record Asset(
+        byte[] raw,
+        byte[] gzip,
+        String etag,
+        String gzipEtag,
+        String contentType,
+        long size,
+        FileTime lastModified
+    ) {
+        private boolean matches(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return attributes.size() == size && attributes.lastModifiedTime().equals(lastModified);
+            } catch (IOException ex) {
+                return false;
+            }
+        }
+    }
+}
@@ -3,21 +3,33 @@ package io.guessauthor.jeopardy.http;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import io.guessauthor.jeopardy.util.HttpUtil;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Locale;
+import java.util.regex.Pattern;
 
 import static io.guessauthor.jeopardy.util.HttpUtil.respondWithStatus;
 
+/**
+ * Serves the web root from memory. Responses carry a strong ETag so browsers can revalidate with
+ * a 304, text assets are sent gzip-compressed when the client accepts it, and file names carrying
+ * a content hash (for example {@code app.3f9a1c2b.js}) are marked immutable for a year.
+ */
 public final class StaticFileHandler implements HttpHandler {
 
+    private static final Pattern FINGERPRINTED = Pattern.compile(".+[.-][0-9a-f]{8,}\\.[a-z0-9]+");
+
     private final Path baseDir;
+    private final StaticAssetCache cache;
 
     public StaticFileHandler(Path baseDir) {
         this.baseDir = baseDir.toAbsolutePath().normalize();
+        this.cache = new StaticAssetCache(this.baseDir, StaticFileHandler::detectContentType);
     }
 
     @Override
@@ -29,29 +41,100 @@ public final class StaticFileHandler implements HttpHandler {
         }
 
         Path target = resolvePath(exchange.getRequestURI().getPath());
-        if (target == null || !Files.exists(target) || Files.isDirectory(target)) {
+        if (target == null || !Files.isRegularFile(target)) {
+            respondWithStatus(exchange, 404, "Not Found");
+            return;
+        }
+
+        StaticAssetCache.Asset asset;
+        try {
+            asset = cache.get(target);
+        } catch (NoSuchFileException ex) {
             respondWithStatus(exchange, 404, "Not Found");
             return;
         }
 
         Headers headers = exchange.getResponseHeaders();
-        headers.set("Content-Type", detectContentType(target));
-        headers.set("Cache-Control", "no-cache, no-store, must-revalidate");
         headers.set("X-Content-Type-Options", "nosniff");
         headers.set("X-Frame-Options", "DENY");
         headers.set("Referrer-Policy", "no-referrer");
+        boolean head = "HEAD".equalsIgnoreCase(method);
 
-        if ("HEAD".equalsIgnoreCase(method)) {
+        if (asset == null) {
+            serveUncached(exchange, target, head);
+            return;
+        }
+
+        boolean gzip = asset.gzip() != null && HttpUtil.acceptsGzip(exchange.getRequestHeaders());
+        String etag = gzip ? asset.gzipEtag() : asset.etag();
+        headers.set("Content-Type", asset.contentType());
+        headers.set("ETag", etag);
+        headers.set("Cache-Control", isFingerprinted(target)
+            ? "public, max-age=31536000, immutable"
+            : "no-cache");
+        if (asset.gzip() != null) {
+            headers.set("Vary", "Accept-Encoding");
+        }
+
+        if (matchesIfNoneMatch(exchange.getRequestHeaders().getFirst("If-None-Match"), asset)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] body = gzip ? asset.gzip() : asset.raw();
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        if (head) {
+            headers.set("Content-Length", Integer.toString(body.length));
             exchange.sendResponseHeaders(200, -1);
             exchange.close();
             return;
         }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
 
-        byte[] content = Files.readAllBytes(target);
-        exchange.sendResponseHeaders(200, content.length);
+    private static void serveUncached(HttpExchange exchange, Path target, boolean head) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", detectContentType(target));
+        headers.set("Cache-Control", "no-cache, no-store, must-revalidate");
+        if (head) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, Files.size(target));
         try (OutputStream output = exchange.getResponseBody()) {
-            output.write(content);
+            Files.copy(target, output);
+        }
+    }
+
+    /**
+     * Either representation's tag counts: both name the same file contents, and a client that
+     * switched encodings still holds a valid copy of the bytes it cached.
+     */
+    private static boolean matchesIfNoneMatch(String header, StaticAssetCache.Asset asset) {
+        if (header == null || header.isBlank()) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(asset.etag()) || tag.equals(asset.gzipEtag())) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    private static boolean isFingerprinted(Path path) {
+        return FINGERPRINTED.matcher(path.getFileName().toString().toLowerCase(Locale.US)).matches();
     }
 
     private Path resolvePath(String rawPath) {
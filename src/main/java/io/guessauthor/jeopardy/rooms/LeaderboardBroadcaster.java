@@ -0,0 +1,313 @@
+package io.guessauthor.jeopardy.rooms;
+
+import io.guessauthor.jeopardy.GameStats.GameSnapshot;
+import io.guessauthor.jeopardy.util.JsonUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Pushes a room's leaderboard to Server-Sent Events subscribers. Score changes only mark the
+ * leaderboard dirty; a flush runs at most once per interval and sends the players whose score,
+ * streak or rank changed since the previous frame.
+ *
+ * <p>Frames are queued per subscriber and written on the writer executor, never on the shared
+ * scheduler. A subscriber that falls {@value #MAX_PENDING_FRAMES} frames behind, e.g. one whose
+ * TCP window is full, is dropped rather than allowed to stall other rooms.
+ */
+public final class LeaderboardBroadcaster {
+
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RETRY = "retry: 5000\n\n".getBytes(StandardCharsets.UTF_8);
+    static final int MAX_PENDING_FRAMES = 64;
+
+    private final Supplier<List<PlayerRecord>> leaderboard;
+    private final ScheduledExecutorService scheduler;
+    private final Executor writer;
+    private final long intervalNanos;
+    private final int maxSubscribers;
+    private final CopyOnWriteArrayList<Subscriber> sinks = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile long lastFlushNanos;
+    private Map<String, RankedPlayer> published = Map.of();
+
+    LeaderboardBroadcaster(
+        Supplier<List<PlayerRecord>> leaderboard,
+        ScheduledExecutorService scheduler,
+        Executor writer,
+        long intervalNanos,
+        int maxSubscribers
+    ) {
+        this.leaderboard = leaderboard;
+        this.scheduler = scheduler;
+        this.writer = writer;
+        this.intervalNanos = intervalNanos;
+        this.maxSubscribers = maxSubscribers;
+        this.lastFlushNanos = System.nanoTime() - intervalNanos;
+    }
+
+    /**
+     * Registers a subscriber and sends it the full current leaderboard. The delta baseline is left
+     * alone, so changes not yet flushed still reach existing subscribers; the newcomer receives
+     * them again in the next frame, which is harmless.
+     *
+     * @return {@code false} if the room already has the maximum number of subscribers
+     */
+    public boolean subscribe(Sink sink, String roomId, String displayName) {
+        writeLock.lock();
+        try {
+            if (sinks.size() >= maxSubscribers) {
+                return false;
+            }
+            Map<String, RankedPlayer> current = rank(leaderboard.get());
+            Subscriber subscriber = new Subscriber(sink);
+            subscriber.offer(RETRY);
+            subscriber.offer(frame("snapshot", snapshotJson(roomId, displayName, current)));
+            sinks.add(subscriber);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int subscriberCount() {
+        return sinks.size();
+    }
+
+    public boolean acceptingSubscribers() {
+        return sinks.size() < maxSubscribers;
+    }
+
+    void markDirty() {
+        if (sinks.isEmpty() || !dirty.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.max(0L, lastFlushNanos + intervalNanos - System.nanoTime());
+        try {
+            scheduler.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            dirty.set(false);
+        }
+    }
+
+    void heartbeat() {
+        if (sinks.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            broadcast(HEARTBEAT);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void close() {
+        writeLock.lock();
+        try {
+            for (Subscriber subscriber : sinks) {
+                subscriber.close();
+            }
+            sinks.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void flush() {
+        writeLock.lock();
+        try {
+            lastFlushNanos = System.nanoTime();
+            dirty.set(false);
+            if (sinks.isEmpty()) {
+                return;
+            }
+            Map<String, RankedPlayer> current = rank(leaderboard.get());
+            List<RankedPlayer> changes = new ArrayList<>();
+            for (RankedPlayer player : current.values()) {
+                if (!player.equals(published.get(player.username()))) {
+                    changes.add(player);
+                }
+            }
+            published = current;
+            if (changes.isEmpty()) {
+                return;
+            }
+            changes.sort(Comparator.comparingInt(RankedPlayer::rank));
+            broadcast(frame("leaderboard", changesJson(current.size(), changes)));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void broadcast(byte[] frame) {
+        for (Subscriber subscriber : sinks) {
+            if (!subscriber.offer(frame)) {
+                sinks.remove(subscriber);
+            }
+        }
+    }
+
+    private static Map<String, RankedPlayer> rank(List<PlayerRecord> records) {
+        Map<String, RankedPlayer> ranked = new HashMap<>(records.size() * 2);
+        int rank = 1;
+        for (PlayerRecord record : records) {
+            ranked.put(record.username(), new RankedPlayer(record.username(), rank++, record.snapshot()));
+        }
+        return ranked;
+    }
+
+    private static byte[] frame(String event, String json) {
+        return ("event: " + event + "\ndata: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String snapshotJson(String roomId, String displayName, Map<String, RankedPlayer> players) {
+        List<RankedPlayer> ordered = new ArrayList<>(players.values());
+        ordered.sort(Comparator.comparingInt(RankedPlayer::rank));
+        return "{\"roomId\":" + JsonUtil.toJsonValue(roomId)
+            + ",\"displayName\":" + JsonUtil.toJsonValue(displayName)
+            + ",\"leaderboard\":" + playersJson(ordered) + "}";
+    }
+
+    private static String changesJson(int playerCount, List<RankedPlayer> changes) {
+        return "{\"players\":" + playerCount + ",\"changes\":" + playersJson(changes) + "}";
+    }
+
+    private static String playersJson(List<RankedPlayer> players) {
+        StringBuilder builder = new StringBuilder(players.size() * 96 + 2).append('[');
+        for (int i = 0; i < players.size(); i++) {
+            RankedPlayer player = players.get(i);
+            GameSnapshot snapshot = player.snapshot();
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"username\":").append(JsonUtil.toJsonValue(player.username()))
+                .append(",\"rank\":").append(player.rank())
+                .append(",\"totalPoints\":").append(snapshot.totalPoints())
+                .append(",\"currentStreak\":").append(snapshot.currentStreak())
+                .append(",\"bestStreak\":").append(snapshot.bestStreak())
+                .append('}');
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Transport for one subscriber. Writes happen on the writer executor, one at a time per sink,
+     * and must flush. Writes may block; {@link #close()} may be called from another thread while
+     * one does.
+     */
+    public interface Sink {
+        void write(byte[] frame) throws IOException;
+
+        void close();
+    }
+
+    /**
+     * A sink with its queue of unwritten frames. At most one drain task per subscriber runs at a
+     * time, so frames are written in order.
+     */
+    private final class Subscriber {
+
+        private final Sink sink;
+        private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(Sink sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * @return {@code false} if the subscriber is closed, or was just closed for falling behind
+         */
+        boolean offer(byte[] frame) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                if (pending.size() >= MAX_PENDING_FRAMES) {
+                    closeLocked();
+                    return false;
+                }
+                pending.add(frame);
+                if (!draining) {
+                    draining = true;
+                    try {
+                        writer.execute(this::drain);
+                    } catch (RejectedExecutionException ex) {
+                        draining = false;
+                        closeLocked();
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closeLocked();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void closeLocked() {
+            closed = true;
+            pending.clear();
+            // A write may be blocked on this sink; closing it from the drain task would never run.
+            try {
+                writer.execute(sink::close);
+            } catch (RejectedExecutionException ex) {
+                sink.close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                byte[] frame;
+                lock.lock();
+                try {
+                    frame = closed ? null : pending.poll();
+                    if (frame == null) {
+                        draining = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    sink.write(frame);
+                } catch (IOException ex) {
+                    sinks.remove(this);
+                    close();
+                    return;
+                }
+            }
+        }
+    }
+
+    private record RankedPlayer(String username, int rank, GameSnapshot snapshot) {}
+}
@@ -2,8 +2,11 @@ package io.guessauthor.jeopardy.rooms;
 
 import io.guessauthor.jeopardy.GameEngine;
 import io.guessauthor.jeopardy.GameStats;
+import io.guessauthor.jeopardy.GameStats.GameSnapshot;
 import io.guessauthor.jeopardy.MessageDeck;
+import io.guessauthor.jeopardy.QuestionPrefetcher;
 import io.guessauthor.jeopardy.data.MessageRepository;
+import io.guessauthor.jeopardy.util.TimerWheel;
 
 import java.time.Duration;
 import java.util.List;
@@ -22,10 +25,14 @@ public final class PlayerSession {
         double decayPerSecond,
         double streakBonusStep,
         double contextCostPercentage,
-        Duration questionExpiry
+        Duration questionExpiry,
+        TimerWheel expiryWheel,
+        QuestionPrefetcher prefetcher,
+        GameSnapshot initialScore,
+        Runnable statsListener
     ) {
         this.username = username;
-        this.stats = new GameStats();
+        this.stats = new GameStats(initialScore, statsListener);
         MessageDeck deck = new MessageDeck(messageIds);
         this.engine = new GameEngine(
             repository,
@@ -35,7 +42,9 @@ public final class PlayerSession {
             decayPerSecond,
             streakBonusStep,
             contextCostPercentage,
-            questionExpiry
+            questionExpiry,
+            expiryWheel,
+            prefetcher
         );
     }
 
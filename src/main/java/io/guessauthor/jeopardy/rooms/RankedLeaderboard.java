@@ -0,0 +1,231 @@
+package io.guessauthor.jeopardy.rooms;
+
+import io.guessauthor.jeopardy.GameStats;
+import io.guessauthor.jeopardy.GameStats.GameSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A room's players ordered by points (highest first, ties by username), kept as a treap whose
+ * nodes count their subtree size. Score updates, rank lookups and fetching the k-th player are
+ * O(log n); a page of k players is O(log n + k). Score changes are only recorded as pending and
+ * are applied on the next read, so scoring never waits on the leaderboard lock.
+ */
+final class RankedLeaderboard {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final ConcurrentHashMap<String, GameStats> pending = new ConcurrentHashMap<>();
+    private Node root;
+
+    /**
+     * Records that the player's score changed, without taking the leaderboard lock. The player is
+     * inserted or moved on the next read.
+     */
+    void markChanged(String username, GameStats stats) {
+        pending.put(username, stats);
+    }
+
+    /**
+     * Moves every pending player to the position for their current score. A player is removed
+     * from the pending set before their snapshot is read, so a change racing with this either
+     * shows up in the snapshot or marks the player pending again. Call with the lock held.
+     */
+    private void applyPending() {
+        for (String username : pending.keySet()) {
+            GameStats stats = pending.remove(username);
+            if (stats != null) {
+                put(username, stats.snapshot());
+            }
+        }
+    }
+
+    /**
+     * Places a player with a fixed snapshot, for scores carried over from an earlier load.
+     */
+    void put(String username, GameSnapshot snapshot) {
+        lock.lock();
+        try {
+            Node replacement = new Node(username, snapshot, ThreadLocalRandom.current().nextInt());
+            Node previous = nodes.put(username, replacement);
+            if (previous != null) {
+                root = erase(root, previous);
+            }
+            root = insert(root, replacement);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            applyPending();
+            return size(root);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One-based rank of the player, or {@code 0} if they are not on the leaderboard.
+     */
+    int rankOf(String username) {
+        lock.lock();
+        try {
+            applyPending();
+            Node target = nodes.get(username);
+            if (target == null) {
+                return 0;
+            }
+            int before = 0;
+            Node node = root;
+            while (node != null) {
+                int order = compare(target, node);
+                if (order == 0) {
+                    return before + size(node.left) + 1;
+                }
+                if (order < 0) {
+                    node = node.left;
+                } else {
+                    before += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Players at zero-based positions {@code [offset, offset + limit)}.
+     */
+    List<PlayerRecord> page(int offset, int limit) {
+        lock.lock();
+        try {
+            applyPending();
+            int from = Math.max(0, offset);
+            int to = (int) Math.min((long) from + Math.max(0, limit), size(root));
+            List<PlayerRecord> records = new ArrayList<>(Math.max(0, to - from));
+            collect(root, from, to, 0, records);
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void collect(Node node, int from, int to, int base, List<PlayerRecord> out) {
+        if (node == null || base >= to || base + node.size <= from) {
+            return;
+        }
+        collect(node.left, from, to, base, out);
+        int index = base + size(node.left);
+        if (index >= from && index < to) {
+            out.add(new PlayerRecord(node.username, node.snapshot));
+        }
+        collect(node.right, from, to, index + 1, out);
+    }
+
+    private static Node insert(Node node, Node item) {
+        if (node == null) {
+            return item;
+        }
+        if (item.priority > node.priority) {
+            Node[] parts = split(node, item);
+            item.left = parts[0];
+            item.right = parts[1];
+            return pull(item);
+        }
+        if (compare(item, node) < 0) {
+            node.left = insert(node.left, item);
+        } else {
+            node.right = insert(node.right, item);
+        }
+        return pull(node);
+    }
+
+    private static Node erase(Node node, Node item) {
+        if (node == null) {
+            return null;
+        }
+        if (node == item) {
+            return merge(node.left, node.right);
+        }
+        if (compare(item, node) < 0) {
+            node.left = erase(node.left, item);
+        } else {
+            node.right = erase(node.right, item);
+        }
+        return pull(node);
+    }
+
+    /**
+     * Splits into nodes ordered before {@code key} and nodes ordered after it.
+     */
+    private static Node[] split(Node node, Node key) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(node, key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            parts[0] = pull(node);
+            return parts;
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        parts[1] = pull(node);
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return pull(left);
+        }
+        right.left = merge(left, right.left);
+        return pull(right);
+    }
+
+    private static Node pull(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int compare(Node a, Node b) {
+        int byPoints = Long.compare(b.snapshot.totalPoints(), a.snapshot.totalPoints());
+        return byPoints != 0 ? byPoints : a.username.compareTo(b.username);
+    }
+
+    private static final class Node {
+        private final String username;
+        private final GameSnapshot snapshot;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(String username, GameSnapshot snapshot, int priority) {
+            this.username = username;
+            this.snapshot = snapshot;
+            this.priority = priority;
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package io.guessauthor.jeopardy.rooms;
 
 import io.guessauthor.jeopardy.GameStats.GameSnapshot;
+import io.guessauthor.jeopardy.QuestionPrefetcher;
 import io.guessauthor.jeopardy.data.MessageRepository;
+import io.guessauthor.jeopardy.util.TimerWheel;
 
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class Room {
 
     private static final int MAX_USERNAME_LENGTH = 32;
+    private static final GameSnapshot NEW_PLAYER = new GameSnapshot(0, 0, 0);
+    private static final long PLAYER_BYTES = 1_024;
+    private static final long QUESTION_BYTES = 2_048;
+    private static final long DORMANT_PLAYER_BYTES = 160;
 
     private final String id;
     private final String displayName;
+    private final RoomContent content;
     private final MessageRepository repository;
     private final List<String> messageIds;
     private final double basePoints;
@@ -22,28 +33,54 @@ public final class Room {
     private final double streakBonusStep;
     private final double contextCostPercentage;
     private final Duration questionExpiry;
+    private final TimerWheel expiryWheel;
+    private final QuestionPrefetcher prefetcher;
+    private final LeaderboardBroadcaster broadcaster;
+    private final RankedLeaderboard ranked = new RankedLeaderboard();
     private final ConcurrentHashMap<String, PlayerSession> players = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, GameSnapshot> dormantScores;
+    // Requests currently using the room, or -1 once it has been released.
+    private final AtomicInteger users = new AtomicInteger();
+    private volatile long lastAccessNanos = System.nanoTime();
 
     Room(
         String id,
         String displayName,
-        MessageRepository repository,
-        List<String> messageIds,
+        RoomContent content,
         double basePoints,
         double decayPerSecond,
         double streakBonusStep,
         double contextCostPercentage,
-        Duration questionExpiry
+        Duration questionExpiry,
+        TimerWheel expiryWheel,
+        QuestionPrefetcher prefetcher,
+        ScheduledExecutorService eventScheduler,
+        Executor eventWriter,
+        Duration leaderboardInterval,
+        int maxLeaderboardSubscribers,
+        Map<String, GameSnapshot> restoredScores
     ) {
         this.id = id;
         this.displayName = displayName;
-        this.repository = repository;
-        this.messageIds = messageIds;
+        this.content = content;
+        this.repository = content.repository();
+        this.messageIds = content.messageIds();
         this.basePoints = basePoints;
         this.decayPerSecond = decayPerSecond;
         this.streakBonusStep = streakBonusStep;
         this.contextCostPercentage = contextCostPercentage;
         this.questionExpiry = questionExpiry;
+        this.expiryWheel = expiryWheel;
+        this.prefetcher = prefetcher;
+        this.broadcaster = new LeaderboardBroadcaster(
+            this::leaderboard,
+            eventScheduler,
+            eventWriter,
+            leaderboardInterval.toNanos(),
+            maxLeaderboardSubscribers
+        );
+        this.dormantScores = new ConcurrentHashMap<>(restoredScores);
+        restoredScores.forEach(ranked::put);
     }
 
     public String id() {
@@ -54,9 +91,96 @@ public final class Room {
         return displayName;
     }
 
+    public String contentHash() {
+        return content.hash();
+    }
+
+    RoomContent content() {
+        return content;
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    long idleNanos(long nowNanos) {
+        return nowNanos - lastAccessNanos;
+    }
+
+    /**
+     * Rough heap this room keeps alive: its share of the loaded database content plus per-player
+     * decks, buffered and outstanding questions.
+     */
+    long estimatedBytes() {
+        long total = content.estimatedBytes() / Math.max(1, content.references());
+        for (PlayerSession session : players.values()) {
+            int questions = session.engine().prefetchedCount() + (session.engine().hasActiveQuestion() ? 1 : 0);
+            total += PLAYER_BYTES + questions * QUESTION_BYTES;
+        }
+        return total + dormantScores.size() * DORMANT_PLAYER_BYTES;
+    }
+
+    /**
+     * Marks a request as using the room until {@link #exit()}, so it is not released underneath
+     * it.
+     *
+     * @return {@code false} if the room has already been released; look it up again instead
+     */
+    boolean enter() {
+        while (true) {
+            int current = users.get();
+            if (current < 0) {
+                return false;
+            }
+            if (users.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void exit() {
+        users.decrementAndGet();
+    }
+
+    /**
+     * Drops every player session and closes leaderboard streams, returning each player's score so
+     * a reloaded room can carry on from it. Does nothing while a request is using the room.
+     *
+     * @return the scores, or {@code null} if the room is in use
+     */
+    Map<String, GameSnapshot> releaseIfUnused() {
+        if (!users.compareAndSet(0, -1)) {
+            return null;
+        }
+        broadcaster.close();
+        Map<String, GameSnapshot> scores = new HashMap<>(dormantScores);
+        for (PlayerSession session : players.values()) {
+            scores.put(session.username(), session.stats().snapshot());
+            session.engine().discardActiveQuestion();
+        }
+        players.clear();
+        dormantScores.clear();
+        return scores;
+    }
+
+    public LeaderboardBroadcaster broadcaster() {
+        return broadcaster;
+    }
+
+    /**
+     * Must be called between {@link #enter()} and {@link #exit()}, or the session may be dropped
+     * by a concurrent release.
+     */
     public PlayerSession getOrCreatePlayer(String username) {
+        if (users.get() < 0) {
+            throw new IllegalStateException("Room " + id + " has been unloaded.");
+        }
         String normalized = normalizeUsername(username);
-        return players.computeIfAbsent(
+        PlayerSession existing = players.get(normalized);
+        if (existing != null) {
+            return existing;
+        }
+        PlayerSession session = players.computeIfAbsent(
             normalized,
             key -> new PlayerSession(
                 normalized,
@@ -66,19 +190,65 @@ public final class Room {
                 decayPerSecond,
                 streakBonusStep,
                 contextCostPercentage,
-                questionExpiry
+                questionExpiry,
+                expiryWheel,
+                prefetcher,
+                dormantScores.getOrDefault(key, NEW_PLAYER),
+                () -> onStatsChanged(normalized)
             )
         );
+        dormantScores.remove(normalized);
+        onStatsChanged(normalized);
+        return session;
     }
 
-    public List<PlayerRecord> leaderboard() {
-        List<PlayerRecord> records = new ArrayList<>();
+    private void onStatsChanged(String username) {
+        PlayerSession session = players.get(username);
+        if (session == null) {
+            return;
+        }
+        ranked.markChanged(username, session.stats());
+        broadcaster.markDirty();
+    }
+
+    void dropIdlePrefetches(long nowNanos) {
         for (PlayerSession session : players.values()) {
-            GameSnapshot snapshot = session.stats().snapshot();
-            records.add(new PlayerRecord(session.username(), snapshot));
+            session.engine().dropPrefetchedIfIdle(nowNanos);
         }
-        records.sort(Comparator.comparingLong((PlayerRecord r) -> r.snapshot().totalPoints()).reversed());
-        return records;
+    }
+
+    void heartbeat() {
+        broadcaster.heartbeat();
+    }
+
+    public List<PlayerRecord> leaderboard() {
+        return ranked.page(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Players at zero-based ranks {@code [offset, offset + limit)}, best first.
+     */
+    public List<PlayerRecord> leaderboard(int offset, int limit) {
+        return ranked.page(offset, limit);
+    }
+
+    int messageCount() {
+        return messageIds.size();
+    }
+
+    Collection<PlayerSession> sessions() {
+        return players.values();
+    }
+
+    public int playerCount() {
+        return ranked.size();
+    }
+
+    /**
+     * One-based rank of the player, or {@code 0} if no such player has joined.
+     */
+    public int rankOf(String username) {
+        return ranked.rankOf(normalizeUsername(username));
     }
 
     private static String normalizeUsername(String username) {
@@ -0,0 +1,121 @@
+package io.guessauthor.jeopardy.rooms;
+
+import io.guessauthor.jeopardy.data.MessageRepository;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One stored database and everything derived from it: the repository with its pools and indexes
+ * and the eligible message ids. Rooms created from identical uploads share a single instance,
+ * which is loaded on first use and closed when the last room releases it.
+ */
+final class RoomContent {
+
+    private final String hash;
+    private final Path databasePath;
+    private final ReentrantLock lock = new ReentrantLock();
+    private MessageRepository repository;
+    private List<String> messageIds;
+    private long estimatedBytes;
+    private int references;
+    private boolean closed;
+
+    RoomContent(String hash, Path databasePath) {
+        this.hash = hash;
+        this.databasePath = databasePath;
+    }
+
+    String hash() {
+        return hash;
+    }
+
+    Path databasePath() {
+        return databasePath;
+    }
+
+    MessageRepository repository() {
+        return repository;
+    }
+
+    List<String> messageIds() {
+        return messageIds;
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    int references() {
+        lock.lock();
+        try {
+            return references;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a reference, loading the content first if this is the first one.
+     *
+     * @return {@code false} if the content was already closed and must be replaced
+     */
+    boolean retain(RoomContentStore.Loader loader) throws SQLException {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (repository == null) {
+                try {
+                    RoomContentStore.Loaded loaded = loader.load(hash, databasePath);
+                    repository = loaded.repository();
+                    messageIds = loaded.messageIds();
+                    estimatedBytes = estimateBytes(repository, messageIds);
+                } catch (SQLException | RuntimeException ex) {
+                    closed = true;
+                    throw ex;
+                }
+            }
+            references++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops a reference.
+     *
+     * @return {@code true} if this was the last reference and the content is now closed
+     */
+    boolean release() {
+        lock.lock();
+        try {
+            if (closed || references == 0) {
+                return false;
+            }
+            references--;
+            if (references > 0) {
+                return false;
+            }
+            closed = true;
+            repository.close();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long estimateBytes(MessageRepository repository, List<String> messageIds) {
+        long total = repository.estimatedHeapBytes();
+        if (repository.corpus().isEmpty()) {
+            for (String id : messageIds) {
+                total += 8 + 40 + (long) id.length() * 2;
+            }
+        }
+        return total;
+    }
+}
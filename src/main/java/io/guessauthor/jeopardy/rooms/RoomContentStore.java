@@ -0,0 +1,167 @@
+package io.guessauthor.jeopardy.rooms;
+
+import io.guessauthor.jeopardy.data.MessageRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Content-addressed room databases. Files are stored as {@code <sha256>.db}, so an identical
+ * upload reuses the file on disk, and loaded content is shared by every room that references it.
+ * A stored file is never replaced once published: it may already be open, and compiled, under
+ * that name.
+ */
+final class RoomContentStore {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final Path storageDir;
+    private final Loader loader;
+    private final Predicate<String> referenced;
+    private final ConcurrentHashMap<String, RoomContent> contents = new ConcurrentHashMap<>();
+    // Guards publishing and deleting stored files, and the per-hash count of unfinished stores.
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final Map<String, Integer> claims = new HashMap<>();
+
+    /**
+     * @param referenced whether any registered room uses the database with the given hash
+     */
+    RoomContentStore(Path storageDir, Loader loader, Predicate<String> referenced) {
+        this.storageDir = storageDir;
+        this.loader = loader;
+        this.referenced = referenced;
+    }
+
+    /**
+     * Copies a database into the store, hashing it on the way. Stops with
+     * {@link RoomManager.UploadTooLargeException} once more than {@code maxBytes} have been read.
+     * Each successful call must be paired with {@link #finishStore}, which keeps the stored file
+     * from being deleted while the caller still needs it.
+     */
+    Stored store(InputStream source, long maxBytes) throws IOException {
+        Path temp = Files.createTempFile(storageDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long total = 0;
+            try (InputStream input = new DigestInputStream(source, digest);
+                 OutputStream output = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[COPY_BUFFER_BYTES];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new RoomManager.UploadTooLargeException(maxBytes);
+                    }
+                    output.write(buffer, 0, read);
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(hash);
+            publishLock.lock();
+            try {
+                boolean reused = Files.exists(target);
+                if (!reused) {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                claims.merge(hash, 1, Integer::sum);
+                return new Stored(hash, target, total, reused);
+            } finally {
+                publishLock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Ends the claim taken by {@link #store}. If the caller did not use a database it added, the
+     * file and its snapshot are deleted, unless another store of the same content is unfinished or
+     * a room uses it.
+     */
+    void finishStore(Stored stored, boolean used) throws IOException {
+        String hash = stored.hash();
+        publishLock.lock();
+        try {
+            Integer remaining = claims.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null);
+            if (used || stored.reused() || remaining != null || contents.containsKey(hash) || referenced.test(hash)) {
+                return;
+            }
+            Files.deleteIfExists(stored.path());
+            Files.deleteIfExists(snapshotPathFor(hash));
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the shared content for a stored database, loading it if no room holds it yet.
+     * Each successful call must be paired with {@link #release(RoomContent)}.
+     */
+    RoomContent acquire(String hash) throws SQLException {
+        while (true) {
+            RoomContent content = contents.computeIfAbsent(hash, key -> new RoomContent(key, pathFor(key)));
+            try {
+                if (content.retain(loader)) {
+                    return content;
+                }
+            } catch (SQLException | RuntimeException ex) {
+                contents.remove(hash, content);
+                throw ex;
+            }
+            contents.remove(hash, content);
+        }
+    }
+
+    void release(RoomContent content) {
+        if (content.release()) {
+            contents.remove(content.hash(), content);
+        }
+    }
+
+    int loadedCount() {
+        return contents.size();
+    }
+
+    Path pathFor(String hash) {
+        return storageDir.resolve(hash + ".db");
+    }
+
+    Path snapshotPathFor(String hash) {
+        return storageDir.resolve(hash + ".snap");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
+
+    @FunctionalInterface
+    interface Loader {
+        Loaded load(String hash, Path databasePath) throws SQLException;
+    }
+
+    record Loaded(MessageRepository repository, List<String> messageIds) {}
+
+    /**
+     * @param reused {@code true} if an identical database was already stored
+     */
+    record Stored(String hash, Path path, long size, boolean reused) {}
+}
@@ -1,27 +1,57 @@
 package io.guessauthor.jeopardy.rooms;
 
+import io.guessauthor.jeopardy.GameEngine;
+import io.guessauthor.jeopardy.GameStats.GameSnapshot;
+import io.guessauthor.jeopardy.QuestionPrefetcher;
+import io.guessauthor.jeopardy.data.DistractorWeighting;
 import io.guessauthor.jeopardy.data.MessageRepository;
+import io.guessauthor.jeopardy.data.QueryTracer;
+import io.guessauthor.jeopardy.data.RoomDatabaseCompiler;
+import io.guessauthor.jeopardy.data.RoomCorpus;
+import io.guessauthor.jeopardy.data.RoomSnapshot;
+import io.guessauthor.jeopardy.data.RoomSnapshotWriter;
+import io.guessauthor.jeopardy.util.TimerWheel;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.security.SecureRandom;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 public final class RoomManager {
 
     private static final SecureRandom RANDOM = new SecureRandom();
     private static final String ROOM_ID_ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
     private static final int ROOM_ID_LENGTH = 10;
-    private static final String ROOM_ID_PATTERN = "^[a-z0-9]{10}$";
+    static final String ROOM_ID_PATTERN = "^[a-z0-9]{10}$";
     private static final int MAX_DB_BYTES = 25 * 1024 * 1024; // 25 MB
     private static final int MAX_ROOM_NAME_LENGTH = 40;
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+    private static final int MAX_LEADERBOARD_SUBSCRIBERS = 1_000;
+    private static final Duration EVICTION_SWEEP_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration EVICTION_MIN_IDLE = Duration.ofMinutes(1);
+    private static final Duration EXPIRY_TICK = Duration.ofSeconds(1);
+    private static final int EXPIRY_BUCKETS = 1_024;
 
     private final Path storageDir;
     private final double basePoints;
@@ -29,7 +59,26 @@ public final class RoomManager {
     private final double streakBonusStep;
     private final double contextCostPercentage;
     private final Duration questionExpiry;
-    private final ConcurrentHashMap<String, Room> rooms = new ConcurrentHashMap<>();
+    private final boolean preloadCorpus;
+    private final boolean snapshotRooms;
+    private final int connectionPoolSize;
+    private final DistractorWeighting distractorWeighting;
+    private final int contextWindow;
+    private final QuestionPrefetcher prefetcher;
+    private final Duration leaderboardInterval;
+    private final long roomHeapBudgetBytes;
+    private final Duration roomIdleTtl;
+    private final QueryTracer queryTracer;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rehydrations = new LongAdder();
+    private final ScheduledExecutorService maintenance;
+    private final ScheduledExecutorService leaderboardEvents;
+    private final ExecutorService leaderboardWriters =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("leaderboard-writer-", 0).factory());
+    private final TimerWheel questionExpiryWheel = new TimerWheel("question-expiry", EXPIRY_TICK, EXPIRY_BUCKETS);
+    private final RoomContentStore contentStore;
+    private final ForkJoinPool restorePool;
+    private final ConcurrentHashMap<String, RoomSlot> rooms = new ConcurrentHashMap<>();
 
     public RoomManager(
         Path storageDir,
@@ -37,7 +86,17 @@ public final class RoomManager {
         double decayPerSecond,
         double streakBonusStep,
         double contextCostPercentage,
-        Duration questionExpiry
+        Duration questionExpiry,
+        boolean preloadCorpus,
+        boolean snapshotRooms,
+        int connectionPoolSize,
+        DistractorWeighting distractorWeighting,
+        int contextWindow,
+        QuestionPrefetcher prefetcher,
+        Duration leaderboardInterval,
+        long roomHeapBudgetBytes,
+        Duration roomIdleTtl,
+        QueryTracer queryTracer
     ) throws IOException {
         this.storageDir = storageDir;
         this.basePoints = basePoints;
@@ -45,24 +104,127 @@ public final class RoomManager {
         this.streakBonusStep = streakBonusStep;
         this.contextCostPercentage = contextCostPercentage;
         this.questionExpiry = questionExpiry;
+        this.preloadCorpus = preloadCorpus;
+        this.snapshotRooms = snapshotRooms;
+        this.connectionPoolSize = connectionPoolSize;
+        this.distractorWeighting = distractorWeighting;
+        this.contextWindow = contextWindow;
+        this.prefetcher = prefetcher;
+        this.leaderboardInterval = leaderboardInterval;
+        this.roomHeapBudgetBytes = roomHeapBudgetBytes;
+        this.roomIdleTtl = roomIdleTtl;
+        this.queryTracer = queryTracer;
         Files.createDirectories(storageDir);
+        this.contentStore = new RoomContentStore(storageDir, this::loadContent, this::isContentReferenced);
+        this.restorePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (prefetcher.enabled()) {
+            long sweepMillis = Math.max(1_000L, TimeUnit.NANOSECONDS.toMillis(prefetcher.idleNanos()) / 2);
+            maintenance.scheduleWithFixedDelay(this::dropIdlePrefetches, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        }
+        if (roomHeapBudgetBytes > 0 || !roomIdleTtl.isZero()) {
+            long evictMillis = EVICTION_SWEEP_INTERVAL.toMillis();
+            maintenance.scheduleWithFixedDelay(this::evictColdRooms, evictMillis, evictMillis, TimeUnit.MILLISECONDS);
+        }
+
+        this.leaderboardEvents = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = HEARTBEAT_INTERVAL.toMillis();
+        leaderboardEvents.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
     }
 
     public RoomCreationResult createRoom(String displayName, byte[] databaseContents) throws IOException, SQLException {
         if (databaseContents.length > MAX_DB_BYTES) {
             throw new IOException("Database file exceeds size limit.");
         }
-        String roomId = generateRoomId();
-        Path dbPath = storageDir.resolve(roomId + ".db");
-        Files.write(dbPath, databaseContents);
-        return createRoomFromExistingPath(roomId, sanitizeRoomName(displayName), dbPath);
+        RoomContentStore.Stored stored = contentStore.store(new ByteArrayInputStream(databaseContents), MAX_DB_BYTES);
+        return createRoomFromStored(sanitizeRoomName(displayName), stored);
+    }
+
+    /**
+     * Streams an uploaded database into the rooms directory without holding it in memory. The size
+     * cap is enforced while copying and the SHA-256 of the contents is computed on the way through.
+     */
+    public RoomCreationResult createRoomFromUpload(String displayName, InputStream body) throws IOException, SQLException {
+        RoomContentStore.Stored stored = contentStore.store(body, MAX_DB_BYTES);
+        if (stored.size() == 0) {
+            contentStore.finishStore(stored, false);
+            throw new SQLException("Uploaded database is empty.");
+        }
+        return createRoomFromStored(sanitizeRoomName(displayName), stored);
     }
 
     public RoomCreationResult createRoomFromPath(String displayName, Path databasePath) throws IOException, SQLException {
-        String roomId = generateRoomId();
-        Path target = storageDir.resolve(roomId + ".db");
-        Files.copy(databasePath, target, StandardCopyOption.REPLACE_EXISTING);
-        return createRoomFromExistingPath(roomId, sanitizeRoomName(displayName), target);
+        RoomContentStore.Stored stored;
+        try (InputStream input = Files.newInputStream(databasePath)) {
+            stored = contentStore.store(input, Long.MAX_VALUE);
+        }
+        String sanitized = sanitizeRoomName(displayName);
+        for (RoomSlot slot : rooms.values()) {
+            RoomManifest manifest = slot.manifest();
+            String expectedName = sanitized == null ? "Room " + manifest.roomId() : sanitized;
+            if (manifest.contentHash().equals(stored.hash()) && manifest.displayName().equals(expectedName)) {
+                contentStore.finishStore(stored, true);
+                return new RoomCreationResult(manifest.roomId(), manifest.displayName());
+            }
+        }
+        return createRoomFromStored(sanitized, stored);
+    }
+
+    /**
+     * Re-registers every room that has a manifest in the storage directory and starts loading them
+     * in parallel. Returns once the rooms are registered; a request for a room that is still loading
+     * waits for that room only. Databases from before content addressing ({@code <roomId>.db}) are
+     * hashed and given a manifest first.
+     *
+     * @return the number of rooms registered
+     */
+    public int restoreRooms() throws IOException {
+        long started = System.nanoTime();
+        migrateLegacyDatabases();
+
+        List<Path> manifestFiles;
+        try (Stream<Path> files = Files.list(storageDir)) {
+            manifestFiles = files
+                .filter(path -> path.getFileName().toString().endsWith(RoomManifest.SUFFIX))
+                .toList();
+        }
+        List<RoomManifest> manifests = new ArrayList<>(manifestFiles.size());
+        for (Path file : manifestFiles) {
+            try {
+                manifests.add(RoomManifest.read(file));
+            } catch (IOException ex) {
+                System.err.printf("Skipping unreadable room manifest %s: %s%n", file.getFileName(), ex.getMessage());
+            }
+        }
+
+        List<CompletableFuture<Room>> pending = new ArrayList<>(manifests.size());
+        for (RoomManifest manifest : manifests) {
+            CompletableFuture<Room> future = CompletableFuture.supplyAsync(() -> loadRoom(manifest, Map.of()), restorePool);
+            rooms.put(manifest.roomId(), new RoomSlot(manifest, future));
+            pending.add(future);
+        }
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            long failed = pending.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+            System.out.printf(
+                Locale.US,
+                "Restored %d rooms (%d failed, %d databases) in %d ms%n",
+                pending.size() - failed,
+                failed,
+                contentStore.loadedCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+            );
+        });
+        return manifests.size();
     }
 
     public Optional<Room> room(String roomId) {
@@ -73,7 +235,93 @@ public final class RoomManager {
         if (!normalized.matches(ROOM_ID_PATTERN)) {
             return Optional.empty();
         }
-        return Optional.ofNullable(rooms.get(normalized));
+        RoomSlot slot = rooms.get(normalized);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        Optional<Room> room = slot.await(this::reload);
+        room.ifPresent(Room::touch);
+        return room;
+    }
+
+    /**
+     * Looks up a room and marks it in use, so it cannot be evicted until the caller's
+     * {@link Room#exit()}. Sessions and scores must only be touched this way; a room evicted
+     * between lookup and entry is simply looked up, and so reloaded, again.
+     */
+    public Optional<Room> enterRoom(String roomId) {
+        while (true) {
+            Optional<Room> room = room(roomId);
+            if (room.isEmpty() || room.get().enter()) {
+                return room;
+            }
+        }
+    }
+
+    public ResidencyStats residency() {
+        long now = System.nanoTime();
+        List<RoomResidency> entries = new ArrayList<>(rooms.size());
+        long residentBytes = 0;
+        int resident = 0;
+        for (RoomSlot slot : rooms.values()) {
+            RoomManifest manifest = slot.manifest();
+            Room room = slot.loadedOrNull();
+            if (room == null) {
+                entries.add(new RoomResidency(manifest.roomId(), manifest.displayName(), false, 0, 0, -1, slot.evictions()));
+                continue;
+            }
+            long bytes = room.estimatedBytes();
+            residentBytes += bytes;
+            resident++;
+            entries.add(new RoomResidency(
+                manifest.roomId(),
+                manifest.displayName(),
+                true,
+                bytes,
+                room.playerCount(),
+                TimeUnit.NANOSECONDS.toSeconds(room.idleNanos(now)),
+                slot.evictions()
+            ));
+        }
+        entries.sort(Comparator.comparingLong(RoomResidency::estimatedBytes).reversed());
+        return new ResidencyStats(
+            roomHeapBudgetBytes,
+            residentBytes,
+            resident,
+            rooms.size(),
+            evictions.sum(),
+            rehydrations.sum(),
+            entries
+        );
+    }
+
+    /**
+     * Players and outstanding questions across resident rooms. Rooms that are not loaded are
+     * counted but not reloaded.
+     */
+    public ActivityStats activity() {
+        int resident = 0;
+        long players = 0;
+        long activeQuestions = 0;
+        long prefetchedQuestions = 0;
+        long deckMessages = 0;
+        long deckRemaining = 0;
+        for (RoomSlot slot : rooms.values()) {
+            Room room = slot.loadedOrNull();
+            if (room == null) {
+                continue;
+            }
+            resident++;
+            for (PlayerSession session : room.sessions()) {
+                GameEngine engine = session.engine();
+                players++;
+                activeQuestions += engine.hasActiveQuestion() ? 1 : 0;
+                prefetchedQuestions += engine.prefetchedCount();
+                deckMessages += room.messageCount();
+                deckRemaining += engine.deckRemaining();
+            }
+        }
+        return new ActivityStats(rooms.size(), resident, players, activeQuestions, prefetchedQuestions, deckMessages, deckRemaining);
     }
 
     public List<PlayerRecord> leaderboard(String roomId) {
@@ -84,38 +332,309 @@ public final class RoomManager {
         return room.leaderboard();
     }
 
-    private RoomCreationResult createRoomFromExistingPath(String roomId, String displayName, Path databasePath)
-        throws SQLException {
-        MessageRepository repository = new MessageRepository(databasePath);
-        List<String> messageIds = repository.fetchEligibleMessageIds();
-        if (messageIds.isEmpty()) {
-            throw new SQLException("Database has no eligible messages: " + databasePath);
-        }
+    private RoomCreationResult createRoomFromStored(String displayName, RoomContentStore.Stored stored)
+        throws IOException, SQLException {
+        String roomId = generateRoomId();
+        System.out.printf(
+            Locale.US,
+            "Room %s database %s: %d bytes, sha256 %s%n",
+            roomId,
+            stored.reused() ? "shared" : "stored",
+            stored.size(),
+            stored.hash()
+        );
         String resolvedName = (displayName == null || displayName.isBlank())
             ? "Room " + roomId
             : displayName;
-        Room room = new Room(
-            roomId.toLowerCase(Locale.US),
-            resolvedName,
-            repository,
-            messageIds,
+        RoomManifest manifest = new RoomManifest(roomId, resolvedName, Instant.now(), stored.hash());
+        boolean created = false;
+        try {
+            Room room = buildRoom(manifest, Map.of());
+            manifest.write(storageDir);
+            rooms.put(room.id(), new RoomSlot(manifest, CompletableFuture.completedFuture(room)));
+            created = true;
+            return new RoomCreationResult(room.id(), room.displayName());
+        } finally {
+            contentStore.finishStore(stored, created);
+        }
+    }
+
+    private boolean isContentReferenced(String hash) {
+        for (RoomSlot slot : rooms.values()) {
+            if (slot.manifest().contentHash().equals(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Room loadRoom(RoomManifest manifest, Map<String, GameSnapshot> scores) {
+        try {
+            return buildRoom(manifest, scores);
+        } catch (SQLException | RuntimeException ex) {
+            System.err.printf("Failed to load room %s: %s%n", manifest.roomId(), ex.getMessage());
+            throw new CompletionException(ex);
+        }
+    }
+
+    private CompletableFuture<Room> reload(RoomSlot slot) {
+        RoomManifest manifest = slot.manifest();
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, GameSnapshot> scores = slot.savedScores();
+            Room room = loadRoom(manifest, scores);
+            slot.scoresRestored(scores);
+            rehydrations.increment();
+            System.out.printf("Room %s reloaded%n", manifest.roomId());
+            return room;
+        }, restorePool);
+    }
+
+    /**
+     * Unloads rooms idle for longer than the TTL, then, while resident rooms are estimated to use
+     * more than the heap budget, the least recently used ones. Rooms with leaderboard subscribers
+     * and rooms used within the last minute are kept.
+     */
+    private void evictColdRooms() {
+        long now = System.nanoTime();
+        long minIdleNanos = Math.max(EVICTION_MIN_IDLE.toNanos(), roomIdleTtl.toNanos());
+        List<RoomSlot> candidates = new ArrayList<>();
+        long residentBytes = 0;
+        for (RoomSlot slot : rooms.values()) {
+            Room room = slot.loadedOrNull();
+            if (room == null) {
+                continue;
+            }
+            boolean pinned = room.broadcaster().subscriberCount() > 0 || room.idleNanos(now) < EVICTION_MIN_IDLE.toNanos();
+            if (!pinned && !roomIdleTtl.isZero() && room.idleNanos(now) >= minIdleNanos) {
+                evict(slot, "idle");
+                continue;
+            }
+            residentBytes += room.estimatedBytes();
+            if (!pinned) {
+                candidates.add(slot);
+            }
+        }
+        if (roomHeapBudgetBytes <= 0 || residentBytes <= roomHeapBudgetBytes) {
+            return;
+        }
+        candidates.sort(Comparator.comparingLong((RoomSlot slot) -> {
+            Room room = slot.loadedOrNull();
+            return room == null ? Long.MAX_VALUE : room.idleNanos(now);
+        }).reversed());
+        for (RoomSlot slot : candidates) {
+            if (residentBytes <= roomHeapBudgetBytes) {
+                break;
+            }
+            Room room = slot.loadedOrNull();
+            if (room == null) {
+                continue;
+            }
+            long bytes = room.estimatedBytes();
+            if (evict(slot, "over budget")) {
+                residentBytes -= bytes;
+            }
+        }
+    }
+
+    private boolean evict(RoomSlot slot, String reason) {
+        Room room = slot.loadedOrNull();
+        long bytes = room == null ? 0 : room.estimatedBytes();
+        Room evicted = slot.evict();
+        if (evicted == null) {
+            return false;
+        }
+        contentStore.release(evicted.content());
+        evictions.increment();
+        System.out.printf(
+            Locale.US,
+            "Evicted room %s (%s, ~%.1f MB)%n",
+            evicted.id(),
+            reason,
+            bytes / (1024.0 * 1024.0)
+        );
+        return true;
+    }
+
+    private Room buildRoom(RoomManifest manifest, Map<String, GameSnapshot> scores) throws SQLException {
+        RoomContent content = contentStore.acquire(manifest.contentHash());
+        return new Room(
+            manifest.roomId(),
+            manifest.displayName(),
+            content,
             basePoints,
             decayPerSecond,
             streakBonusStep,
             contextCostPercentage,
-            questionExpiry
+            questionExpiry,
+            questionExpiryWheel,
+            prefetcher,
+            leaderboardEvents,
+            leaderboardWriters,
+            leaderboardInterval,
+            MAX_LEADERBOARD_SUBSCRIBERS,
+            scores
         );
-        rooms.put(room.id(), room);
-        return new RoomCreationResult(room.id(), room.displayName());
     }
 
-    private static String generateRoomId() {
-        StringBuilder builder = new StringBuilder(ROOM_ID_LENGTH);
-        for (int i = 0; i < ROOM_ID_LENGTH; i++) {
-            int index = RANDOM.nextInt(ROOM_ID_ALPHABET.length());
-            builder.append(ROOM_ID_ALPHABET.charAt(index));
+    /**
+     * Moves {@code <roomId>.db} files written before content addressing to {@code <sha256>.db} and
+     * writes a manifest for each, hashing them in parallel.
+     */
+    private void migrateLegacyDatabases() throws IOException {
+        List<Path> legacy;
+        try (Stream<Path> files = Files.list(storageDir)) {
+            legacy = files
+                .filter(path -> path.getFileName().toString().matches("[a-z0-9]{10}\\.db"))
+                .toList();
+        }
+        if (legacy.isEmpty()) {
+            return;
+        }
+        restorePool.submit(() -> legacy.parallelStream().forEach(this::migrateLegacyDatabase)).join();
+    }
+
+    private void migrateLegacyDatabase(Path legacyPath) {
+        String fileName = legacyPath.getFileName().toString();
+        String roomId = fileName.substring(0, fileName.length() - ".db".length());
+        try {
+            Instant createdAt = Files.getLastModifiedTime(legacyPath).toInstant();
+            RoomContentStore.Stored stored;
+            try (InputStream input = Files.newInputStream(legacyPath)) {
+                stored = contentStore.store(input, Long.MAX_VALUE);
+            }
+            try {
+                new RoomManifest(roomId, "Room " + roomId, createdAt, stored.hash()).write(storageDir);
+            } finally {
+                contentStore.finishStore(stored, true);
+            }
+            Files.delete(legacyPath);
+            System.out.printf("Migrated room %s to content-addressed storage%n", roomId);
+        } catch (IOException ex) {
+            System.err.printf("Failed to migrate room database %s: %s%n", fileName, ex.getMessage());
+        }
+    }
+
+    /**
+     * Opens a stored database and builds everything rooms share from it. The stored copy is
+     * compiled first; a database that cannot be compiled is still served from its original tables.
+     * With snapshots enabled, a compiled database is served from its snapshot instead, written on
+     * first load, and falls back to SQLite if the snapshot cannot be written or opened.
+     */
+    private RoomContentStore.Loaded loadContent(String hash, Path databasePath) throws SQLException {
+        boolean compiled = compileDatabase(hash, databasePath);
+        if (snapshotRooms && compiled) {
+            RoomSnapshot snapshot = openSnapshot(hash, databasePath);
+            if (snapshot != null) {
+                MessageRepository repository = new MessageRepository(snapshot);
+                List<String> messageIds = repository.fetchEligibleMessageIds();
+                if (messageIds.isEmpty()) {
+                    repository.close();
+                    throw new SQLException("Database has no eligible messages: " + databasePath);
+                }
+                return new RoomContentStore.Loaded(repository, List.copyOf(messageIds));
+            }
+        }
+        MessageRepository repository = new MessageRepository(
+            databasePath,
+            connectionPoolSize,
+            distractorWeighting,
+            contextWindow,
+            queryTracer,
+            compiled
+        );
+        try {
+            List<String> messageIds;
+            if (preloadCorpus) {
+                RoomCorpus corpus = repository.preloadCorpus();
+                messageIds = corpus.messageIds();
+                System.out.printf(
+                    Locale.US,
+                    "Database %s corpus preloaded: %d messages, %d participants in %d ms (~%.1f MB heap)%n",
+                    hash,
+                    corpus.messageCount(),
+                    corpus.participantCount(),
+                    corpus.loadMillis(),
+                    corpus.estimatedBytes() / (1024.0 * 1024.0)
+                );
+            } else {
+                messageIds = repository.fetchEligibleMessageIds();
+            }
+            if (messageIds.isEmpty()) {
+                throw new SQLException("Database has no eligible messages: " + databasePath);
+            }
+            repository.buildTimelineIndex();
+            return new RoomContentStore.Loaded(repository, List.copyOf(messageIds));
+        } catch (SQLException | RuntimeException ex) {
+            repository.close();
+            throw ex;
+        }
+    }
+
+    private RoomSnapshot openSnapshot(String hash, Path databasePath) {
+        Path snapshotPath = contentStore.snapshotPathFor(hash);
+        try {
+            if (!Files.exists(snapshotPath)) {
+                long started = System.nanoTime();
+                RoomSnapshotWriter.write(databasePath, snapshotPath);
+                System.out.printf(
+                    Locale.US,
+                    "Database %s snapshot written in %d ms (%.1f MB)%n",
+                    hash,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                    Files.size(snapshotPath) / (1024.0 * 1024.0)
+                );
+            }
+            return RoomSnapshot.open(snapshotPath, distractorWeighting, contextWindow);
+        } catch (IOException | SQLException ex) {
+            System.err.printf("Could not use snapshot for database %s, serving it from SQLite: %s%n", hash, ex.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean compileDatabase(String hash, Path databasePath) {
+        long started = System.nanoTime();
+        try {
+            if (RoomDatabaseCompiler.compile(databasePath)) {
+                System.out.printf("Database %s compiled in %d ms%n", hash, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+            return true;
+        } catch (SQLException ex) {
+            System.err.printf("Could not compile database %s, serving it uncompiled: %s%n", hash, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void dropIdlePrefetches() {
+        long now = System.nanoTime();
+        for (RoomSlot slot : rooms.values()) {
+            Room room = slot.loadedOrNull();
+            if (room != null) {
+                room.dropIdlePrefetches(now);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (RoomSlot slot : rooms.values()) {
+            Room room = slot.loadedOrNull();
+            if (room != null) {
+                room.heartbeat();
+            }
+        }
+    }
+
+    private String generateRoomId() {
+        while (true) {
+            StringBuilder builder = new StringBuilder(ROOM_ID_LENGTH);
+            for (int i = 0; i < ROOM_ID_LENGTH; i++) {
+                int index = RANDOM.nextInt(ROOM_ID_ALPHABET.length());
+                builder.append(ROOM_ID_ALPHABET.charAt(index));
+            }
+            String roomId = builder.toString();
+            if (!rooms.containsKey(roomId) && !Files.exists(storageDir.resolve(roomId + RoomManifest.SUFFIX))) {
+                return roomId;
+            }
         }
-        return builder.toString();
     }
 
     private static String sanitizeRoomName(String name) {
@@ -130,4 +649,49 @@ public final class RoomManager {
     }
 
     public record RoomCreationResult(String roomId, String displayName) {}
+
+    public record ResidencyStats(
+        long budgetBytes,
+        long residentBytes,
+        int residentRooms,
+        int totalRooms,
+        long evictions,
+        long rehydrations,
+        List<RoomResidency> rooms
+    ) {}
+
+    /**
+     * @param deckMessages ids across all player decks, counting each deck in full
+     * @param deckRemaining ids left in the current pass of each player's deck
+     */
+    public record ActivityStats(
+        int totalRooms,
+        int residentRooms,
+        long players,
+        long activeQuestions,
+        long prefetchedQuestions,
+        long deckMessages,
+        long deckRemaining
+    ) {}
+
+    /**
+     * @param idleSeconds seconds since the room was last used, or {@code -1} if it is not resident
+     */
+    public record RoomResidency(
+        String roomId,
+        String displayName,
+        boolean resident,
+        long estimatedBytes,
+        int players,
+        long idleSeconds,
+        long evictions
+    ) {}
+
+    public static final class UploadTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UploadTooLargeException(long limit) {
+            super("Database file exceeds size limit of " + limit + " bytes.");
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package io.guessauthor.jeopardy.rooms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Properties;
+
+/**
+ * What a room needs to survive a restart, stored next to the databases as {@code <roomId>.room}.
+ */
+record RoomManifest(String roomId, String displayName, Instant createdAt, String contentHash) {
+
+    static final String SUFFIX = ".room";
+    private static final String CONTENT_HASH_PATTERN = "^[0-9a-f]{64}$";
+
+    Path path(Path storageDir) {
+        return storageDir.resolve(roomId + SUFFIX);
+    }
+
+    void write(Path storageDir) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("id", roomId);
+        properties.setProperty("displayName", displayName);
+        properties.setProperty("createdAt", createdAt.toString());
+        properties.setProperty("contentHash", contentHash);
+        Path temp = Files.createTempFile(storageDir, roomId + "-", ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                properties.store(output, null);
+            }
+            Files.move(temp, path(storageDir), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static RoomManifest read(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+        }
+        String roomId = properties.getProperty("id");
+        String displayName = properties.getProperty("displayName");
+        String contentHash = properties.getProperty("contentHash");
+        if (roomId == null || displayName == null || contentHash == null) {
+            throw new IOException("Incomplete room manifest: " + file);
+        }
+        // The hash becomes a file name in the store, so anything but a lower-case SHA-256 is refused.
+        if (!roomId.matches(RoomManager.ROOM_ID_PATTERN) || !contentHash.matches(CONTENT_HASH_PATTERN)) {
+            throw new IOException("Invalid room id or content hash in room manifest: " + file);
+        }
+        Instant createdAt;
+        try {
+            createdAt = Instant.parse(properties.getProperty("createdAt", Instant.EPOCH.toString()));
+        } catch (DateTimeParseException ex) {
+            throw new IOException("Invalid creation time in room manifest: " + file, ex);
+        }
+        return new RoomManifest(roomId, displayName, createdAt, contentHash);
+    }
+}
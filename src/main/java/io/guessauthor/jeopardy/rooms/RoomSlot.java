@@ -0,0 +1,142 @@
+package io.guessauthor.jeopardy.rooms;
+
+import io.guessauthor.jeopardy.GameStats.GameSnapshot;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Registry entry for a room. The room itself may still be loading, or may have been evicted and
+ * need reloading; callers that need it wait on this slot only, so a slow room does not hold up
+ * requests for any other. Scores survive eviction and are handed to the next load. A load that
+ * fails, at startup or after eviction, is retried by the first request after a short backoff.
+ */
+final class RoomSlot {
+
+    private static final long RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final RoomManifest manifest;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong evictions = new AtomicLong();
+    private CompletableFuture<Room> room;
+    private Map<String, GameSnapshot> savedScores = Map.of();
+    private volatile long failedAtNanos;
+
+    RoomSlot(RoomManifest manifest, CompletableFuture<Room> room) {
+        this.manifest = manifest;
+        this.room = watch(room);
+    }
+
+    RoomManifest manifest() {
+        return manifest;
+    }
+
+    /**
+     * Waits for the room, starting a reload with {@code loader} if it was evicted or its last load
+     * failed. Empty if loading failed.
+     */
+    Optional<Room> await(Function<RoomSlot, CompletableFuture<Room>> loader) {
+        CompletableFuture<Room> current;
+        lock.lock();
+        try {
+            boolean retry = room != null && room.isCompletedExceptionally()
+                && System.nanoTime() - failedAtNanos >= RETRY_BACKOFF_NANOS;
+            if (room == null || retry) {
+                room = watch(loader.apply(this));
+            }
+            current = room;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return Optional.of(current.join());
+        } catch (CompletionException | CancellationException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The room if it is loaded, without waiting or reloading.
+     */
+    Room loadedOrNull() {
+        lock.lock();
+        try {
+            return room != null && room.isDone() && !room.isCompletedExceptionally() ? room.join() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unloads the room if it is loaded and no request is using it, keeping its scores for the next
+     * load.
+     *
+     * @return the evicted room, whose content the caller must release, or {@code null}
+     */
+    Room evict() {
+        lock.lock();
+        try {
+            if (room == null || !room.isDone() || room.isCompletedExceptionally()) {
+                return null;
+            }
+            Room evicted = room.join();
+            Map<String, GameSnapshot> scores = evicted.releaseIfUnused();
+            if (scores == null) {
+                return null;
+            }
+            room = null;
+            savedScores = scores;
+            evictions.incrementAndGet();
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Scores saved by the last eviction, kept until {@link #scoresRestored} so a failed reload can
+     * hand them to the next attempt.
+     */
+    Map<String, GameSnapshot> savedScores() {
+        lock.lock();
+        try {
+            return savedScores;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets {@code scores} once a room loaded from them is in place.
+     */
+    void scoresRestored(Map<String, GameSnapshot> scores) {
+        lock.lock();
+        try {
+            if (savedScores == scores) {
+                savedScores = Map.of();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableFuture<Room> watch(CompletableFuture<Room> load) {
+        load.whenComplete((loaded, error) -> {
+            if (error != null) {
+                failedAtNanos = System.nanoTime();
+            }
+        });
+        return load;
+    }
+
+    long evictions() {
+        return evictions.get();
+    }
+}
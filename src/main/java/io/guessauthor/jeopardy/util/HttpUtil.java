@@ -8,13 +8,49 @@ import java.io.OutputStream;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public final class HttpUtil {
 
+    private static volatile ResponseCompression compression = new ResponseCompression(0);
+
     private HttpUtil() {
     }
 
+    /**
+     * Sets how {@link #respondJson} compresses responses. Call once at startup.
+     */
+    public static void useCompression(ResponseCompression responseCompression) {
+        compression = responseCompression;
+    }
+
+    public static ResponseCompression compression() {
+        return compression;
+    }
+
+    /**
+     * Whether the request's Accept-Encoding allows gzip, honouring an explicit {@code q=0}.
+     */
+    public static boolean acceptsGzip(Headers requestHeaders) {
+        for (String header : requestHeaders.getOrDefault("Accept-Encoding", List.of())) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().toLowerCase(Locale.US).split(";");
+                if (!"gzip".equals(parts[0].trim())) {
+                    continue;
+                }
+                for (int i = 1; i < parts.length; i++) {
+                    if (parts[i].replace(" ", "").matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static Map<String, String> parseFormUrlEncoded(String body) {
         Map<String, String> map = new HashMap<>();
         if (body == null || body.isBlank()) {
@@ -39,9 +75,13 @@ public final class HttpUtil {
     }
 
     public static void respondWithStatus(HttpExchange exchange, int status, String message) throws IOException {
-        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        respondText(exchange, status, "text/plain; charset=utf-8", message);
+    }
+
+    public static void respondText(HttpExchange exchange, int status, String contentType, String text) throws IOException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
         Headers headers = exchange.getResponseHeaders();
-        headers.set("Content-Type", "text/plain; charset=utf-8");
+        headers.set("Content-Type", contentType);
         headers.set("X-Content-Type-Options", "nosniff");
         headers.set("X-Frame-Options", "DENY");
         headers.set("Referrer-Policy", "no-referrer");
@@ -51,20 +91,70 @@ public final class HttpUtil {
         }
     }
 
-    public static void respondJson(HttpExchange exchange, int status, String json) throws IOException {
-        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+    /**
+     * Streams a JSON document written by {@code body}. Documents that fit in one buffer are sent
+     * with a Content-Length; larger ones are sent chunked as they are written. Either is gzipped
+     * when the client accepts it and compression is enabled.
+     */
+    public static void respondJson(HttpExchange exchange, int status, JsonWriter.Body body) throws IOException {
         Headers headers = exchange.getResponseHeaders();
         headers.set("Content-Type", "application/json; charset=utf-8");
         headers.set("X-Content-Type-Options", "nosniff");
         headers.set("X-Frame-Options", "DENY");
         headers.set("Referrer-Policy", "no-referrer");
-        exchange.sendResponseHeaders(status, payload.length);
-        try (OutputStream output = exchange.getResponseBody()) {
-            output.write(payload);
+        ResponseCompression current = compression;
+        ResponseCompression gzip = null;
+        if (current.enabled()) {
+            headers.set("Vary", "Accept-Encoding");
+            if (acceptsGzip(exchange.getRequestHeaders())) {
+                gzip = current;
+            }
+        }
+        try (JsonWriter writer = new JsonWriter(new ExchangeTarget(exchange, status, gzip))) {
+            body.write(writer);
+            writer.finish();
         }
     }
 
     private static String decode(String value) {
         return URLDecoder.decode(value, StandardCharsets.UTF_8);
     }
+
+    /**
+     * @param compression {@code null} when the response goes out uncompressed
+     */
+    private record ExchangeTarget(
+        HttpExchange exchange,
+        int status,
+        ResponseCompression compression
+    ) implements JsonWriter.Target {
+
+        @Override
+        public OutputStream open() throws IOException {
+            if (compression == null) {
+                exchange.sendResponseHeaders(status, 0);
+                return exchange.getResponseBody();
+            }
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(status, 0);
+            return compression.gzip(exchange.getResponseBody());
+        }
+
+        @Override
+        public void complete(byte[] bytes, int length) throws IOException {
+            byte[] gzipped = compression == null ? null : compression.compress(bytes, length);
+            if (gzipped != null) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(status, gzipped.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(gzipped);
+                }
+                return;
+            }
+            exchange.sendResponseHeaders(status, length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes, 0, length);
+            }
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package io.guessauthor.jeopardy.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Least-recently-used cache of pre-encoded JSON, bounded by total bytes. Entries are keyed by the
+ * repository they were rendered from, so rooms sharing one database share fragments and a reloaded
+ * database never sees stale ones. Fragments of unloaded repositories simply age out.
+ */
+public final class JsonFragmentCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final long budgetBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long usedBytes;
+
+    /**
+     * @param budgetBytes total size of cached fragments; {@code 0} disables caching
+     */
+    public JsonFragmentCache(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+    }
+
+    /**
+     * Fragments rendered from one repository, identified by {@link
+     * io.guessauthor.jeopardy.data.MessageRepository#instanceId()}.
+     */
+    public Scope scope(long repositoryId) {
+        return new Scope(this, repositoryId);
+    }
+
+    /**
+     * Returns the cached fragment, rendering and storing it on a miss. Fragments larger than an
+     * eighth of the budget are rendered every time rather than flushing the cache.
+     */
+    private byte[] get(long scope, Kind kind, String id, JsonWriter.Body render) throws IOException {
+        if (id == null) {
+            return kind.render(render);
+        }
+        Key key = new Key(scope, kind, id);
+        if (budgetBytes > 0) {
+            lock.lock();
+            try {
+                byte[] cached = entries.get(key);
+                if (cached != null) {
+                    hits.increment();
+                    return cached;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        misses.increment();
+        byte[] rendered = kind.render(render);
+        long size = sizeOf(key, rendered);
+        if (size <= budgetBytes / 8) {
+            store(key, rendered, size);
+        }
+        return rendered;
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(budgetBytes, usedBytes, entries.size(), hits.sum(), misses.sum(), evictions.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(Key key, byte[] fragment, long size) {
+        lock.lock();
+        try {
+            byte[] previous = entries.put(key, fragment);
+            usedBytes += size;
+            if (previous != null) {
+                usedBytes -= sizeOf(key, previous);
+            }
+            Iterator<Map.Entry<Key, byte[]>> eldest = entries.entrySet().iterator();
+            while (usedBytes > budgetBytes && eldest.hasNext()) {
+                Map.Entry<Key, byte[]> entry = eldest.next();
+                usedBytes -= sizeOf(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long sizeOf(Key key, byte[] fragment) {
+        return ENTRY_OVERHEAD_BYTES + fragment.length + 2L * key.id().length();
+    }
+
+    public record Scope(JsonFragmentCache cache, long repositoryId) {
+
+        /**
+         * The members written by {@code render}, without the enclosing braces, for splicing with
+         * {@link JsonWriter#rawMembers}.
+         */
+        public byte[] members(String id, JsonWriter.Body render) throws IOException {
+            return cache.get(repositoryId, Kind.MEMBERS, id, render);
+        }
+
+        /**
+         * The single value written by {@code render}, for splicing with {@link JsonWriter#rawValue(byte[])}.
+         */
+        public byte[] value(String id, JsonWriter.Body render) throws IOException {
+            return cache.get(repositoryId, Kind.VALUE, id, render);
+        }
+    }
+
+    public record Stats(long budgetBytes, long usedBytes, int entries, long hits, long misses, long evictions) {}
+
+    private enum Kind {
+        MEMBERS,
+        VALUE;
+
+        private byte[] render(JsonWriter.Body body) throws IOException {
+            if (this == VALUE) {
+                return JsonWriter.toByteArray(body);
+            }
+            byte[] object = JsonWriter.toByteArray(writer -> {
+                writer.beginObject();
+                body.write(writer);
+                writer.endObject();
+            });
+            return Arrays.copyOfRange(object, 1, object.length - 1);
+        }
+    }
+
+    private record Key(long scope, Kind kind, String id) {}
+}
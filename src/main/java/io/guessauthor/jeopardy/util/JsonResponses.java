@@ -4,6 +4,7 @@ import io.guessauthor.jeopardy.GameEngine;
 import io.guessauthor.jeopardy.GameStats.GameSnapshot;
 import io.guessauthor.jeopardy.data.MessageRepository;
 
+import java.io.IOException;
 import java.util.List;
 
 public final class JsonResponses {
@@ -11,195 +12,174 @@ public final class JsonResponses {
     private JsonResponses() {
     }
 
-    public static String question(GameEngine.QuestionResponse response) {
+    /**
+     * The message itself comes from {@code fragments}; only the question id, choices and score are
+     * written per request.
+     */
+    public static void question(
+        JsonWriter writer,
+        GameEngine.QuestionResponse response,
+        JsonFragmentCache.Scope fragments
+    ) throws IOException {
         MessageRepository.Message message = response.message();
-        return """
-            {
-              "questionId": %s,
-              "messageId": %s,
-              "content": %s,
-              "timestamp": %s,
-              "attachments": %s,
-              "embeds": %s,
-              "choices": %s,
-              "score": %s
-            }
-            """.formatted(
-            JsonUtil.toJsonValue(response.questionId()),
-            JsonUtil.toJsonValue(message.id()),
-            JsonUtil.toJsonValue(message.content()),
-            JsonUtil.toJsonValue(message.timestamp()),
-            attachmentsToJson(message.attachments()),
-            embedsToJson(message.embeds()),
-            choicesToJson(message.choices()),
-            scoreToJson(response.score())
-        );
+        writer.beginObject()
+            .name("questionId").value(response.questionId())
+            .rawMembers(fragments.members(message.id(), fragment -> messageMembers(fragment, message)));
+        writer.name("choices");
+        choices(writer, message.choices());
+        writer.name("score");
+        score(writer, response.score());
+        writer.endObject();
     }
 
-    public static String guess(GameEngine.GuessResponse response) {
-        return """
-            {
-              "correct": %s,
-              "displayName": %s,
-              "fullName": %s,
-              "correctChoiceId": %s,
-              "awardedPoints": %s,
-              "basePoints": %s,
-              "streakMultiplier": %s,
-              "elapsedSeconds": %s,
-              "totalPoints": %s,
-              "currentStreak": %s,
-              "bestStreak": %s,
-              "context": {
-                "before": %s,
-                "after": %s
-              }
-            }
-            """.formatted(
-            Boolean.toString(response.correct()),
-            JsonUtil.toJsonValue(response.displayName()),
-            JsonUtil.toJsonValue(response.fullName()),
-            JsonUtil.toJsonValue(response.correctChoiceId()),
-            Long.toString(response.awardedPoints()),
-            formatDouble(response.basePoints()),
-            formatDouble(response.streakMultiplier()),
-            formatDouble(response.elapsedSeconds()),
-            Long.toString(response.score().totalPoints()),
-            Integer.toString(response.score().currentStreak()),
-            Integer.toString(response.score().bestStreak()),
-            contextSnippetToJson(response.context() == null ? null : response.context().before()),
-            contextSnippetToJson(response.context() == null ? null : response.context().after())
-        );
+    public static void guess(
+        JsonWriter writer,
+        GameEngine.GuessResponse response,
+        JsonFragmentCache.Scope fragments
+    ) throws IOException {
+        writer.beginObject()
+            .name("correct").value(response.correct())
+            .name("displayName").value(response.displayName())
+            .name("fullName").value(response.fullName())
+            .name("correctChoiceId").value(response.correctChoiceId())
+            .name("awardedPoints").value(response.awardedPoints())
+            .name("basePoints").value(response.basePoints())
+            .name("streakMultiplier").value(response.streakMultiplier())
+            .name("elapsedSeconds").value(response.elapsedSeconds())
+            .name("totalPoints").value(response.score().totalPoints())
+            .name("currentStreak").value(response.score().currentStreak())
+            .name("bestStreak").value(response.score().bestStreak());
+        writer.name("context");
+        context(writer, response.context() == null ? MessageRepository.MessageContext.empty() : response.context(), fragments);
+        writer.endObject();
     }
 
-    public static String context(GameEngine.ContextResponse response) {
-        return """
-            {
-              "cost": %s,
-              "contextUnlocked": true,
-              "context": {
-                "before": %s,
-                "after": %s
-              },
-              "score": %s
-            }
-            """.formatted(
-            Long.toString(response.cost()),
-            contextSnippetToJson(response.context().before()),
-            contextSnippetToJson(response.context().after()),
-            scoreToJson(response.score())
-        );
+    public static void context(
+        JsonWriter writer,
+        GameEngine.ContextResponse response,
+        JsonFragmentCache.Scope fragments
+    ) throws IOException {
+        writer.beginObject()
+            .name("cost").value(response.cost())
+            .name("contextUnlocked").value(true);
+        writer.name("context");
+        context(writer, response.context(), fragments);
+        writer.name("score");
+        score(writer, response.score());
+        writer.endObject();
     }
 
-    public static String scoreToJson(GameSnapshot snapshot) {
-        return """
-            {
-              "totalPoints": %s,
-              "currentStreak": %s,
-              "bestStreak": %s
-            }
-            """.formatted(
-            Long.toString(snapshot.totalPoints()),
-            Integer.toString(snapshot.currentStreak()),
-            Integer.toString(snapshot.bestStreak())
-        );
+    public static void score(JsonWriter writer, GameSnapshot snapshot) throws IOException {
+        writer.beginObject()
+            .name("totalPoints").value(snapshot.totalPoints())
+            .name("currentStreak").value(snapshot.currentStreak())
+            .name("bestStreak").value(snapshot.bestStreak())
+            .endObject();
     }
 
-    private static String attachmentsToJson(List<MessageRepository.Attachment> attachments) {
-        if (attachments == null || attachments.isEmpty()) {
-            return "[]";
-        }
-        StringBuilder builder = new StringBuilder();
-        builder.append('[');
-        boolean first = true;
-        for (MessageRepository.Attachment attachment : attachments) {
-            if (attachment == null) {
-                continue;
-            }
-            if (!first) {
-                builder.append(',');
+    private static void messageMembers(JsonWriter writer, MessageRepository.Message message) throws IOException {
+        writer.name("messageId").value(message.id())
+            .name("content").value(message.content())
+            .name("timestamp").value(message.timestamp());
+        writer.name("attachments");
+        attachments(writer, message.attachments());
+        writer.name("embeds");
+        embeds(writer, message.embeds());
+    }
+
+    private static void context(
+        JsonWriter writer,
+        MessageRepository.MessageContext context,
+        JsonFragmentCache.Scope fragments
+    ) throws IOException {
+        writer.beginObject();
+        writer.name("before");
+        contextSnippet(writer, context.before(), fragments);
+        writer.name("after");
+        contextSnippet(writer, context.after(), fragments);
+        writer.name("beforeMessages");
+        contextSnippets(writer, context.beforeMessages(), fragments);
+        writer.name("afterMessages");
+        contextSnippets(writer, context.afterMessages(), fragments);
+        writer.endObject();
+    }
+
+    private static void attachments(JsonWriter writer, List<MessageRepository.Attachment> attachments) throws IOException {
+        writer.beginArray();
+        if (attachments != null) {
+            for (MessageRepository.Attachment attachment : attachments) {
+                if (attachment == null) {
+                    continue;
+                }
+                writer.beginObject()
+                    .name("url").value(attachment.url())
+                    .name("fileName").value(attachment.fileName())
+                    .endObject();
             }
-            builder
-                .append('{')
-                .append("\"url\":").append(JsonUtil.toJsonValue(attachment.url())).append(',')
-                .append("\"fileName\":").append(JsonUtil.toJsonValue(attachment.fileName()))
-                .append('}');
-            first = false;
         }
-        builder.append(']');
-        return builder.toString();
+        writer.endArray();
     }
 
-    private static String embedsToJson(List<String> embeds) {
-        if (embeds == null || embeds.isEmpty()) {
-            return "[]";
-        }
-        StringBuilder builder = new StringBuilder();
-        builder.append('[');
-        boolean first = true;
-        for (String embed : embeds) {
-            if (embed == null || embed.isBlank()) {
-                continue;
-            }
-            if (!first) {
-                builder.append(',');
+    private static void embeds(JsonWriter writer, List<String> embeds) throws IOException {
+        writer.beginArray();
+        if (embeds != null) {
+            for (String embed : embeds) {
+                if (embed == null || embed.isBlank()) {
+                    continue;
+                }
+                writer.rawValue(embed);
             }
-            builder.append(embed);
-            first = false;
         }
-        builder.append(']');
-        return builder.toString();
+        writer.endArray();
     }
 
-    private static String choicesToJson(List<MessageRepository.Choice> choices) {
-        if (choices == null || choices.isEmpty()) {
-            return "[]";
-        }
-        StringBuilder builder = new StringBuilder();
-        builder.append('[');
-        boolean first = true;
-        for (MessageRepository.Choice choice : choices) {
-            if (choice == null) {
-                continue;
-            }
-            if (!first) {
-                builder.append(',');
+    private static void choices(JsonWriter writer, List<MessageRepository.Choice> choices) throws IOException {
+        writer.beginArray();
+        if (choices != null) {
+            for (MessageRepository.Choice choice : choices) {
+                if (choice == null) {
+                    continue;
+                }
+                writer.beginObject()
+                    .name("participantId").value(choice.participantId())
+                    .name("displayName").value(choice.displayName())
+                    .name("fullName").value(choice.fullName())
+                    .endObject();
             }
-            builder
-                .append('{')
-                .append("\"participantId\":").append(JsonUtil.toJsonValue(choice.participantId())).append(',')
-                .append("\"displayName\":").append(JsonUtil.toJsonValue(choice.displayName())).append(',')
-                .append("\"fullName\":").append(JsonUtil.toJsonValue(choice.fullName()))
-                .append('}');
-            first = false;
         }
-        builder.append(']');
-        return builder.toString();
+        writer.endArray();
     }
 
-    private static String contextSnippetToJson(MessageRepository.ContextSnippet snippet) {
-        if (snippet == null) {
-            return "null";
-        }
-        return """
-            {
-              "messageId": %s,
-              "content": %s,
-              "timestamp": %s,
-              "displayName": %s
+    private static void contextSnippets(
+        JsonWriter writer,
+        List<MessageRepository.ContextSnippet> snippets,
+        JsonFragmentCache.Scope fragments
+    ) throws IOException {
+        writer.beginArray();
+        if (snippets != null) {
+            for (MessageRepository.ContextSnippet snippet : snippets) {
+                if (snippet != null) {
+                    contextSnippet(writer, snippet, fragments);
+                }
             }
-            """.formatted(
-            JsonUtil.toJsonValue(snippet.id()),
-            JsonUtil.toJsonValue(snippet.content()),
-            JsonUtil.toJsonValue(snippet.timestamp()),
-            JsonUtil.toJsonValue(snippet.displayName())
-        );
+        }
+        writer.endArray();
     }
 
-    private static String formatDouble(double value) {
-        if (Double.isNaN(value) || Double.isInfinite(value)) {
-            return "0";
+    private static void contextSnippet(
+        JsonWriter writer,
+        MessageRepository.ContextSnippet snippet,
+        JsonFragmentCache.Scope fragments
+    ) throws IOException {
+        if (snippet == null) {
+            writer.nullValue();
+            return;
         }
-        return String.format(java.util.Locale.US, "%.2f", value);
+        writer.rawValue(fragments.value(snippet.id(), fragment -> fragment.beginObject()
+            .name("messageId").value(snippet.id())
+            .name("content").value(snippet.content())
+            .name("timestamp").value(snippet.timestamp())
+            .name("displayName").value(snippet.displayName())
+            .endObject()));
     }
 }
@@ -2,6 +2,8 @@ package io.guessauthor.jeopardy.util;
 
 public final class JsonUtil {
 
+    private static final String HEX = "0123456789abcdef";
+
     private JsonUtil() {
     }
 
@@ -13,8 +15,17 @@ public final class JsonUtil {
     }
 
     public static String escape(String input) {
-        StringBuilder builder = new StringBuilder(input.length() + 16);
-        for (char c : input.toCharArray()) {
+        int length = input.length();
+        int first = 0;
+        while (first < length && !needsEscape(input.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return input;
+        }
+        StringBuilder builder = new StringBuilder(length + 16).append(input, 0, first);
+        for (int i = first; i < length; i++) {
+            char c = input.charAt(i);
             switch (c) {
                 case '\\' -> builder.append("\\\\");
                 case '"' -> builder.append("\\\"");
@@ -25,7 +36,7 @@ public final class JsonUtil {
                 case '\t' -> builder.append("\\t");
                 default -> {
                     if (c < 0x20) {
-                        builder.append(String.format("\\u%04x", (int) c));
+                        builder.append("\\u00").append(HEX.charAt(c >> 4)).append(HEX.charAt(c & 0xF));
                     } else {
                         builder.append(c);
                     }
@@ -34,4 +45,8 @@ public final class JsonUtil {
         }
         return builder.toString();
     }
+
+    private static boolean needsEscape(char c) {
+        return c < 0x20 || c == '"' || c == '\\';
+    }
 }
@@ -0,0 +1,374 @@
+package io.guessauthor.jeopardy.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes JSON as UTF-8 straight into a pooled byte buffer. A document that fits in one buffer is
+ * handed to {@link Target#complete} whole, so callers can send an exact Content-Length; a larger one
+ * is flushed buffer by buffer into the stream returned by {@link Target#open}.
+ *
+ * <p>Not thread-safe. Commas and colons are inserted automatically.
+ */
+public final class JsonWriter implements AutoCloseable {
+
+    static final int BUFFER_SIZE = 16 * 1024;
+    private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(64);
+    private static final String HEX = "0123456789abcdef";
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private final Target target;
+    private byte[] buffer;
+    private int position;
+    private OutputStream stream;
+    private boolean[] hasElements = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(Target target) {
+        this.target = target;
+        byte[] pooled = POOL.poll();
+        this.buffer = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        writeByte('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        depth--;
+        writeByte('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        writeByte('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        depth--;
+        writeByte(']');
+        return this;
+    }
+
+    /**
+     * Writes a member name; the next call writes its value. Names are written without escaping, so
+     * they must be plain ASCII literals.
+     */
+    public JsonWriter name(String name) throws IOException {
+        if (hasElements[depth]) {
+            writeByte(',');
+        }
+        hasElements[depth] = true;
+        ensure(name.length() + 3);
+        buffer[position++] = '"';
+        for (int i = 0; i < name.length(); i++) {
+            buffer[position++] = (byte) name.charAt(i);
+        }
+        buffer[position++] = '"';
+        buffer[position++] = ':';
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    /**
+     * Writes a number rounded to two decimals; NaN and infinities become {@code 0}.
+     */
+    public JsonWriter value(double value) throws IOException {
+        beforeValue();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeByte('0');
+            return this;
+        }
+        long hundredths = Math.round(Math.abs(value) * 100);
+        if (value < 0 && hundredths != 0) {
+            writeByte('-');
+        }
+        writeLong(hundredths / 100);
+        long fraction = hundredths % 100;
+        ensure(3);
+        buffer[position++] = '.';
+        buffer[position++] = (byte) ('0' + fraction / 10);
+        buffer[position++] = (byte) ('0' + fraction % 10);
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        writeBytes(NULL);
+        return this;
+    }
+
+    /**
+     * Writes text that is already valid JSON, such as a stored embed object.
+     */
+    public JsonWriter rawValue(String json) throws IOException {
+        beforeValue();
+        writeUtf8(json, false);
+        return this;
+    }
+
+    /**
+     * Writes bytes that are already a valid UTF-8 JSON value.
+     */
+    public JsonWriter rawValue(byte[] json) throws IOException {
+        beforeValue();
+        writeBytes(json);
+        return this;
+    }
+
+    /**
+     * Writes one or more pre-encoded {@code "name":value} pairs into the current object.
+     */
+    public JsonWriter rawMembers(byte[] members) throws IOException {
+        if (hasElements[depth]) {
+            writeByte(',');
+        }
+        hasElements[depth] = true;
+        writeBytes(members);
+        return this;
+    }
+
+    /**
+     * Renders a document to a standalone byte array.
+     */
+    public static byte[] toByteArray(Body body) throws IOException {
+        ByteArrayTarget target = new ByteArrayTarget();
+        try (JsonWriter writer = new JsonWriter(target)) {
+            body.write(writer);
+            writer.finish();
+        }
+        return target.result();
+    }
+
+    /**
+     * Flushes what is left and completes the target. Call once, after the document is closed.
+     */
+    public void finish() throws IOException {
+        if (stream == null) {
+            target.complete(buffer, position);
+            return;
+        }
+        stream.write(buffer, 0, position);
+        position = 0;
+        stream.close();
+    }
+
+    /**
+     * Returns the buffer to the pool. A stream opened by a document that never finished is left
+     * open so the caller can abort the exchange rather than end it looking complete.
+     */
+    @Override
+    public void close() {
+        if (buffer == null) {
+            return;
+        }
+        POOL.offer(buffer);
+        buffer = null;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasElements[depth]) {
+            writeByte(',');
+        }
+        hasElements[depth] = true;
+    }
+
+    private void push() {
+        depth++;
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth] = false;
+    }
+
+    private void writeString(String value) throws IOException {
+        ensure(1);
+        buffer[position++] = '"';
+        writeUtf8(value, true);
+        ensure(1);
+        buffer[position++] = '"';
+    }
+
+    private void writeUtf8(String value, boolean escape) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            // Six bytes covers the longest single step, an escaped control character.
+            ensure(6);
+            if (c < 0x80) {
+                if (escape && (c < 0x20 || c == '"' || c == '\\')) {
+                    writeEscape(c);
+                } else {
+                    buffer[position++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeEscape(char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '"' -> buffer[position++] = '"';
+            case '\\' -> buffer[position++] = '\\';
+            case '\b' -> buffer[position++] = 'b';
+            case '\f' -> buffer[position++] = 'f';
+            case '\n' -> buffer[position++] = 'n';
+            case '\r' -> buffer[position++] = 'r';
+            case '\t' -> buffer[position++] = 't';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = (byte) HEX.charAt(c >> 4);
+                buffer[position++] = (byte) HEX.charAt(c & 0xF);
+            }
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        ensure(20);
+        if (value == Long.MIN_VALUE) {
+            writeUtf8(Long.toString(value), false);
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private void writeByte(char c) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(Math.min(bytes.length - offset, buffer.length));
+            int count = Math.min(bytes.length - offset, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, count);
+            position += count;
+            offset += count;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes <= buffer.length) {
+            return;
+        }
+        if (stream == null) {
+            stream = target.open();
+        }
+        stream.write(buffer, 0, position);
+        position = 0;
+    }
+
+    /**
+     * Where a document goes. Exactly one of the two methods is called per document.
+     */
+    public interface Target {
+
+        /**
+         * Called once, when the document outgrows a single buffer.
+         */
+        OutputStream open() throws IOException;
+
+        /**
+         * Called by {@link #finish()} when the whole document fit in one buffer.
+         */
+        void complete(byte[] bytes, int length) throws IOException;
+    }
+
+    /**
+     * Writes one complete JSON document.
+     */
+    @FunctionalInterface
+    public interface Body {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    private static final class ByteArrayTarget implements Target {
+
+        private ByteArrayOutputStream overflow;
+        private byte[] complete;
+
+        @Override
+        public OutputStream open() {
+            overflow = new ByteArrayOutputStream(BUFFER_SIZE * 2);
+            return overflow;
+        }
+
+        @Override
+        public void complete(byte[] bytes, int length) {
+            complete = Arrays.copyOf(bytes, length);
+        }
+
+        byte[] result() {
+            return complete != null ? complete : overflow.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.guessauthor.jeopardy.util;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram on striped counters, from half a millisecond to ten seconds.
+ * Recording is a short scan of the bounds and two adder increments.
+ */
+public final class LatencyHistogram {
+
+    private static final double[] BUCKET_SECONDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] BUCKET_NANOS = new long[BUCKET_SECONDS.length];
+    private static final String[] BUCKET_LABELS = new String[BUCKET_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+            BUCKET_NANOS[i] = (long) (BUCKET_SECONDS[i] * 1_000_000_000L);
+            BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKET_SECONDS[i]).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long elapsedNanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_NANOS.length && elapsedNanos > BUCKET_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(elapsedNanos);
+    }
+
+    public long count() {
+        long total = 0;
+        for (LongAdder bucket : buckets) {
+            total += bucket.sum();
+        }
+        return total;
+    }
+
+    public long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Appends the {@code _bucket}, {@code _sum} and {@code _count} samples of {@code family} in the
+     * Prometheus text format. {@code labels} is inserted before {@code le}, e.g.
+     * {@code handler="guess"}.
+     */
+    public void appendTo(StringBuilder out, String family, String labels) {
+        // Read the buckets once and derive the count from them, so _count always equals +Inf.
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_LABELS.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(family).append("_bucket{").append(labels).append(",le=\"").append(BUCKET_LABELS[i])
+                .append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += buckets[BUCKET_LABELS.length].sum();
+        out.append(family).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(family).append("_sum{").append(labels).append("} ").append(sumNanos.sum() / 1e9).append('\n');
+        out.append(family).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+    }
+}
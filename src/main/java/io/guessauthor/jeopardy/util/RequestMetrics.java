@@ -0,0 +1,109 @@
+package io.guessauthor.jeopardy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Request counts and latency histograms per handler. Handlers are registered once at startup and
+ * hold their {@link HandlerMetrics}, so recording a request touches only striped counters: no map
+ * lookup, lock or allocation.
+ */
+public final class RequestMetrics {
+
+    private static final String[] STATUS_CLASSES = {"other", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<HandlerMetrics> handlers = new ArrayList<>();
+
+    public HandlerMetrics register(String name) {
+        lock.lock();
+        try {
+            for (HandlerMetrics existing : handlers) {
+                if (existing.name.equals(name)) {
+                    throw new IllegalArgumentException("Handler already registered: " + name);
+                }
+            }
+            HandlerMetrics metrics = new HandlerMetrics(name);
+            handlers.add(metrics);
+            return metrics;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the request counter, in-flight gauge and latency histogram families in the
+     * Prometheus text format.
+     */
+    public void appendTo(StringBuilder out) {
+        List<HandlerMetrics> snapshot;
+        lock.lock();
+        try {
+            snapshot = List.copyOf(handlers);
+        } finally {
+            lock.unlock();
+        }
+
+        out.append("# HELP jeopardy_http_requests_total Requests handled, by handler and response status class.\n");
+        out.append("# TYPE jeopardy_http_requests_total counter\n");
+        for (HandlerMetrics handler : snapshot) {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                long count = handler.statuses[i].sum();
+                // 2xx-5xx are always present so rates work from the first scrape; the rest only once seen.
+                if (count == 0 && (i == 0 || i == 1)) {
+                    continue;
+                }
+                out.append("jeopardy_http_requests_total{handler=\"").append(handler.name)
+                    .append("\",status=\"").append(STATUS_CLASSES[i]).append("\"} ").append(count).append('\n');
+            }
+        }
+
+        out.append("# HELP jeopardy_http_requests_in_flight Requests currently being handled.\n");
+        out.append("# TYPE jeopardy_http_requests_in_flight gauge\n");
+        for (HandlerMetrics handler : snapshot) {
+            out.append("jeopardy_http_requests_in_flight{handler=\"").append(handler.name).append("\"} ")
+                .append(handler.inFlight.sum()).append('\n');
+        }
+
+        out.append("# HELP jeopardy_http_request_duration_seconds Time from dispatch until the response body is closed.\n");
+        out.append("# TYPE jeopardy_http_request_duration_seconds histogram\n");
+        for (HandlerMetrics handler : snapshot) {
+            handler.latency.appendTo(out, "jeopardy_http_request_duration_seconds", "handler=\"" + handler.name + "\"");
+        }
+    }
+
+    public static final class HandlerMetrics {
+
+        private final String name;
+        private final LongAdder[] statuses = new LongAdder[STATUS_CLASSES.length];
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder inFlight = new LongAdder();
+
+        private HandlerMetrics(String name) {
+            this.name = name;
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = new LongAdder();
+            }
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public void started() {
+            inFlight.increment();
+        }
+
+        /**
+         * @param status the response code sent, or {@code -1} if the handler sent none
+         */
+        public void completed(int status, long elapsedNanos) {
+            inFlight.decrement();
+            int statusClass = status >= 100 && status < 600 ? status / 100 : 0;
+            statuses[statusClass].increment();
+            latency.record(elapsedNanos);
+        }
+    }
+}
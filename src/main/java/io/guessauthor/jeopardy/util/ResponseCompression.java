@@ -0,0 +1,159 @@
+package io.guessauthor.jeopardy.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Gzip for API responses. Deflaters are pooled rather than created per response, since each one
+ * holds a sizeable native buffer, and responses below {@code minBytes} are sent as-is because the
+ * gzip framing and CPU time outweigh the savings.
+ */
+public final class ResponseCompression {
+
+    private static final int LEVEL = 5;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final int GZIP_FRAMING_BYTES = GZIP_HEADER.length + 8;
+
+    private final int minBytes;
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(32);
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * @param minBytes smallest response worth compressing; {@code 0} disables compression
+     */
+    public ResponseCompression(int minBytes) {
+        this.minBytes = Math.max(0, minBytes);
+    }
+
+    public boolean enabled() {
+        return minBytes > 0;
+    }
+
+    /**
+     * Compresses a complete response.
+     *
+     * @return the gzip bytes, or {@code null} if the response should be sent uncompressed
+     */
+    byte[] compress(byte[] bytes, int length) throws IOException {
+        if (length < minBytes) {
+            skipped.increment();
+            return null;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(length / 4 + GZIP_FRAMING_BYTES);
+        try (OutputStream gzip = gzip(buffer)) {
+            gzip.write(bytes, 0, length);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Wraps a response stream. Closing the returned stream finishes the gzip member and closes
+     * {@code output}.
+     */
+    OutputStream gzip(OutputStream output) throws IOException {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(LEVEL, true);
+        }
+        return new GzipStream(output, deflater);
+    }
+
+    public Stats stats() {
+        return new Stats(minBytes, compressed.sum(), skipped.sum(), bytesIn.sum(), bytesOut.sum(), nanos.sum());
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param skipped responses the client would have accepted gzip for, but below the threshold
+     * @param nanos time spent deflating and checksumming; writes to the underlying stream are not
+     *     included
+     */
+    public record Stats(int minBytes, long compressed, long skipped, long bytesIn, long bytesOut, long nanos) {
+
+        /**
+         * Compressed size as a fraction of the original, or {@code 0} before the first response.
+         */
+        public double ratio() {
+            return bytesIn == 0 ? 0 : (double) bytesOut / bytesIn;
+        }
+    }
+
+    /**
+     * Times only the deflater and checksum work: each deflated chunk is timed into the internal
+     * buffer, and the clock is stopped before the chunk is written out, which for a streamed
+     * response may block on the client.
+     */
+    private final class GzipStream extends DeflaterOutputStream {
+
+        private final CRC32 crc = new CRC32();
+        private long elapsed;
+        private boolean closed;
+
+        GzipStream(OutputStream output, Deflater deflater) throws IOException {
+            super(output, deflater, 8192);
+            output.write(GZIP_HEADER);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            crc.update(bytes, offset, length);
+            elapsed += System.nanoTime() - start;
+            super.write(bytes, offset, length);
+        }
+
+        @Override
+        protected void deflate() throws IOException {
+            long start = System.nanoTime();
+            int length = def.deflate(buf, 0, buf.length);
+            elapsed += System.nanoTime() - start;
+            if (length > 0) {
+                out.write(buf, 0, length);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                finish();
+                writeIntLe((int) crc.getValue());
+                writeIntLe((int) def.getBytesRead());
+                compressed.increment();
+                bytesIn.add(def.getBytesRead());
+                bytesOut.add(def.getBytesWritten() + GZIP_FRAMING_BYTES);
+                nanos.add(elapsed);
+                out.close();
+            } finally {
+                release(def);
+            }
+        }
+
+        private void writeIntLe(int value) throws IOException {
+            out.write(value & 0xFF);
+            out.write((value >>> 8) & 0xFF);
+            out.write((value >>> 16) & 0xFF);
+            out.write((value >>> 24) & 0xFF);
+        }
+    }
+}
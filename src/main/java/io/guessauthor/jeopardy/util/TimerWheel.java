@@ -0,0 +1,137 @@
+package io.guessauthor.jeopardy.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel for coarse deadlines such as question expiry. Scheduling appends to a
+ * lock-free queue; a single daemon thread moves new timeouts into the bucket for their tick and, each
+ * tick, visits only that bucket. Scheduling and expiry are O(1) amortized however many timeouts are
+ * pending. Timeouts fire up to one tick late. Cancelling drops the task reference at once, so a
+ * cancelled task does not stay reachable; its small {@link Timeout} is discarded when its bucket
+ * comes round.
+ */
+public final class TimerWheel implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout>[] buckets;
+    private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * @param bucketCount rounded up to a power of two; deadlines further out than
+     *                    {@code tick * bucketCount} are revisited once per rotation
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(String name, Duration tick, int bucketCount) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Timer wheel tick must be positive.");
+        }
+        int size = Integer.highestOneBit(Math.max(bucketCount, 1) - 1) << 1;
+        size = Math.max(size, 1);
+        this.tickNanos = tick.toNanos();
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Runs {@code task} on the wheel's thread once {@code delayNanos} have passed. Tasks should be
+     * short; a slow task delays every later tick.
+     */
+    public Timeout schedule(Runnable task, long delayNanos) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(delayNanos, 0L));
+        if (!closed) {
+            scheduled.add(timeout);
+        }
+        return timeout;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long tickDeadline = startNanos + tick * tickNanos;
+            long now = System.nanoTime();
+            while (now < tickDeadline) {
+                LockSupport.parkNanos(this, tickDeadline - now);
+                if (closed) {
+                    return;
+                }
+                now = System.nanoTime();
+            }
+            transferScheduled(tick);
+            expire(buckets[(int) (tick & mask)], now);
+            tick++;
+        }
+    }
+
+    private void transferScheduled(long currentTick) {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.task == null) {
+                continue;
+            }
+            long offset = timeout.deadlineNanos - startNanos;
+            long deadlineTick = offset <= 0 ? 0 : (offset + tickNanos - 1) / tickNanos;
+            buckets[(int) (Math.max(deadlineTick, currentTick) & mask)].add(timeout);
+        }
+    }
+
+    private static void expire(List<Timeout> bucket, long now) {
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout timeout = bucket.get(i);
+            Runnable task = timeout.task;
+            if (task == null) {
+                continue;
+            }
+            if (timeout.deadlineNanos - now > 0) {
+                bucket.set(kept++, timeout);
+                continue;
+            }
+            timeout.task = null;
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                System.err.printf("Timer task failed: %s%n", ex);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    public static final class Timeout {
+
+        private final long deadlineNanos;
+        private volatile Runnable task;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Stops the task from running if it has not already. Safe to call from any thread, and more
+         * than once.
+         */
+        public void cancel() {
+            task = null;
+        }
+    }
+}
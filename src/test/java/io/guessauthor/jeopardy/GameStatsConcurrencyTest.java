@@ -0,0 +1,229 @@
+package io.guessauthor.jeopardy;
+
+import io.guessauthor.jeopardy.GameEngine.ContextStatus;
+import io.guessauthor.jeopardy.GameEngine.ContextUnlockResult;
+import io.guessauthor.jeopardy.GameStats.GameSnapshot;
+import io.guessauthor.jeopardy.GameStats.ScoreChange;
+import io.guessauthor.jeopardy.GameStats.Spend;
+import io.guessauthor.jeopardy.data.MessageBackend;
+import io.guessauthor.jeopardy.data.MessageRepository;
+import io.guessauthor.jeopardy.data.MessageRepository.Choice;
+import io.guessauthor.jeopardy.data.MessageRepository.Message;
+import io.guessauthor.jeopardy.data.MessageRepository.MessageContext;
+import io.guessauthor.jeopardy.util.TimerWheel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Races threads against one player's {@link GameStats} and against context purchases for the same
+ * question.
+ */
+class GameStatsConcurrencyTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * Every call's reported delta is exact for the transition it made, so the deltas must add up to
+     * the final total whatever order the transitions happened in.
+     */
+    @Test
+    void concurrentChangesAddUpToTheFinalScore() throws InterruptedException {
+        int operations = 50_000;
+        LongAdder changes = new LongAdder();
+        GameStats stats = new GameStats(new GameSnapshot(1_000, 0, 0), changes::increment);
+        long[] ledgers = new long[THREADS];
+        long[] expectedChanges = new long[THREADS];
+        int[] bestStreaks = new int[THREADS];
+        AtomicLong negative = new AtomicLong();
+        runConcurrently(THREADS, worker -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long ledger = 0;
+            long changed = 0;
+            int bestStreak = 0;
+            List<Long> refundable = new ArrayList<>();
+            for (int i = 0; i < operations; i++) {
+                int roll = random.nextInt(100);
+                if (roll < 55) {
+                    ScoreChange change = stats.applyCorrect(random.nextInt(1, 1_000), 0.1);
+                    ledger += change.awardedPoints();
+                    bestStreak = Math.max(bestStreak, change.snapshot().currentStreak());
+                    changed++;
+                } else if (roll < 60) {
+                    ScoreChange change = stats.applyIncorrect(500);
+                    ledger += change.awardedPoints();
+                    changed++;
+                } else if (roll < 90) {
+                    long price = random.nextInt(1, 5_000);
+                    Spend spend = stats.spend(points -> Math.min(points, price));
+                    if (spend != null) {
+                        if (spend.snapshot().totalPoints() < 0) {
+                            negative.incrementAndGet();
+                        }
+                        ledger -= spend.cost();
+                        refundable.add(spend.cost());
+                        changed++;
+                    }
+                } else if (!refundable.isEmpty()) {
+                    long amount = refundable.remove(refundable.size() - 1);
+                    stats.refundPoints(amount);
+                    ledger += amount;
+                    if (amount > 0) {
+                        changed++;
+                    }
+                }
+            }
+            ledgers[worker] = ledger;
+            expectedChanges[worker] = changed;
+            bestStreaks[worker] = bestStreak;
+        });
+
+        long expectedTotal = 1_000;
+        long expectedChangeCount = 0;
+        int maxStreak = 0;
+        for (int t = 0; t < THREADS; t++) {
+            expectedTotal += ledgers[t];
+            expectedChangeCount += expectedChanges[t];
+            maxStreak = Math.max(maxStreak, bestStreaks[t]);
+        }
+        GameSnapshot finalScore = stats.snapshot();
+        assertEquals(expectedTotal, finalScore.totalPoints(), "final total");
+        assertEquals(0, negative.get(), "spends that left a negative balance");
+        assertEquals(expectedChangeCount, changes.sum(), "change notifications");
+        assertTrue(finalScore.bestStreak() >= maxStreak,
+            "best streak " + finalScore.bestStreak() + " below observed streak " + maxStreak);
+    }
+
+    /**
+     * However the unlocks interleave, the player pays one price, every response reports that price,
+     * and refunds leave no trace.
+     */
+    @Test
+    void concurrentContextUnlocksChargeOnce() throws InterruptedException {
+        int rounds = 100;
+        GameStats stats = new GameStats(new GameSnapshot(1_000_000_000_000L, 0, 0), () -> { });
+        try (TimerWheel expiryWheel = new TimerWheel("question-expiry", Duration.ofSeconds(1), 1_024)) {
+            GameEngine engine = new GameEngine(
+                new MessageRepository(new SlowContextBackend()),
+                new MessageDeck(SlowContextBackend.IDS),
+                stats,
+                1_000.0,
+                5.0,
+                0.1,
+                0.01,
+                Duration.ofMinutes(10),
+                expiryWheel,
+                QuestionPrefetcher.disabled()
+            );
+            for (int round = 0; round < rounds; round++) {
+                String questionId = engine.prepareQuestion().orElseThrow().questionId();
+                long before = stats.snapshot().totalPoints();
+                long expectedCost = (long) Math.ceil(before * 0.01);
+                ContextUnlockResult[] results = new ContextUnlockResult[THREADS];
+                runConcurrently(THREADS, worker -> results[worker] = engine.unlockContext(questionId));
+
+                for (ContextUnlockResult result : results) {
+                    assertEquals(ContextStatus.SUCCESS, result.status(), "round " + round + " status");
+                    assertEquals(expectedCost, result.response().cost(), "round " + round + " reported cost");
+                }
+                assertEquals(before - expectedCost, stats.snapshot().totalPoints(), "round " + round + " balance");
+                engine.discardActiveQuestion();
+            }
+        }
+    }
+
+    /**
+     * Starts {@code threads} platform threads together and waits for all of them.
+     */
+    private static void runConcurrently(int threads, Worker body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            Thread thread = Thread.ofPlatform().unstarted(() -> {
+                try {
+                    start.await();
+                    body.run(worker);
+                } catch (Throwable ex) {
+                    synchronized (failures) {
+                        failures.add(ex);
+                    }
+                }
+            });
+            workers.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("worker failed", failures.get(0));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run(int worker) throws Exception;
+    }
+
+    /**
+     * One-message-per-id backend whose context lookup parks briefly, widening the window between
+     * paying for context and recording the purchase.
+     */
+    private static final class SlowContextBackend implements MessageBackend {
+
+        static final List<String> IDS = List.of("1", "2", "3", "4", "5", "6", "7", "8");
+
+        @Override
+        public Optional<Message> fetchMessageById(String messageId) {
+            return Optional.of(new Message(
+                messageId,
+                "message " + messageId,
+                "2024-01-01T00:00:00Z",
+                "author",
+                "author#0001",
+                List.of(),
+                List.of(),
+                "100",
+                choices("100")
+            ));
+        }
+
+        @Override
+        public List<String> fetchEligibleMessageIds() {
+            return IDS;
+        }
+
+        @Override
+        public MessageContext fetchContext(String messageId) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(50_000, 500_000));
+            return MessageContext.empty();
+        }
+
+        @Override
+        public long estimatedHeapBytes() {
+            return 0;
+        }
+
+        private static List<Choice> choices(String authorId) {
+            return List.of(new Choice(authorId, "author", "author#0001"), new Choice("200", "other", "other#0001"));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}